@@ -0,0 +1,117 @@
+-- Сравнение поиска событий по подстроке текста с индексами pg_trgm и без них.
+--
+-- Скрипт создает схему ewm_benchmark с таблицей events (только поля, участвующие в поиске), заполняет ее
+-- случайными аннотациями и описаниями и выполняет запрос, который строит EventCustomRepositoryImpl.getAllEvents
+-- в режимах поиска LIKE и TRIGRAM (events.search.mode):
+--   1. без индексов по тексту;
+--   2. после создания индексов GIN gin_trgm_ops из main-service/src/main/resources/schema-postgresql.sql;
+--   3. с сортировкой по похожести текста (sort=RELEVANCE в режиме TRIGRAM).
+-- Редкое слово встречается примерно в одном событии из тысячи, частое - в каждом десятом.
+--
+-- Запуск (количество событий по умолчанию - 1000000, нужно право на создание расширения pg_trgm):
+--   psql -d <база данных> -v rows=1000000 -f benchmarks/event-text-search.sql
+-- Схема ewm_benchmark удаляется в конце скрипта, расширение pg_trgm остается.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+\set rows 1000000
+\endif
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP SCHEMA IF EXISTS ewm_benchmark CASCADE;
+CREATE SCHEMA ewm_benchmark;
+SET search_path = ewm_benchmark, public;
+
+CREATE TABLE events
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    annotation  VARCHAR(2000)                           NOT NULL,
+    description VARCHAR(7000),
+    event_date  TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    paid        boolean                                 NOT NULL,
+    state       VARCHAR(200)                            NOT NULL,
+    CONSTRAINT pk_event PRIMARY KEY (id)
+);
+
+SELECT setseed(0.42);
+
+INSERT INTO events (annotation, description, event_date, paid, state)
+SELECT words.annotation || CASE WHEN i % 1000 = 0 THEN ' Саксофон' ELSE '' END,
+       words.description || CASE WHEN i % 10 = 0 THEN ' концерт под открытым небом' ELSE '' END,
+       timestamp '2026-01-01' + random() * interval '365 days',
+       random() < 0.5,
+       'PUBLISHED'
+FROM generate_series(1, :rows) AS i
+         CROSS JOIN LATERAL (SELECT string_agg(w, ' ') FILTER (WHERE n <= 8)  AS annotation,
+                                    string_agg(w, ' ')                        AS description
+                             FROM (SELECT n,
+                                          (ARRAY ['встреча', 'выставка', 'лекция', 'прогулка', 'мастер-класс',
+                                              'экскурсия', 'фестиваль', 'спектакль', 'турнир', 'ярмарка',
+                                              'город', 'парк', 'музей', 'друзья', 'вечер', 'утро', 'история',
+                                              'искусство', 'музыка', 'книги'])[1 + floor(random() * 20)::int
+                                              + i * 0] AS w
+                                   FROM generate_series(1, 40) AS n) AS t) AS words;
+
+ANALYZE events;
+
+\timing on
+
+-- 1. Без индексов по тексту
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id
+FROM events
+WHERE event_date > timestamp '2026-06-01'
+  AND paid = false
+  AND (lower(annotation) LIKE '%саксофон%' OR lower(description) LIKE '%саксофон%')
+ORDER BY event_date
+LIMIT 10;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id
+FROM events
+WHERE event_date > timestamp '2026-06-01'
+  AND paid = false
+  AND (lower(annotation) LIKE '%открытым небом%' OR lower(description) LIKE '%открытым небом%')
+ORDER BY event_date
+LIMIT 10;
+
+-- 2. С индексами pg_trgm
+CREATE INDEX idx_events_annotation_trgm ON events USING GIN (lower(annotation) gin_trgm_ops);
+
+CREATE INDEX idx_events_description_trgm ON events USING GIN (lower(description) gin_trgm_ops);
+
+ANALYZE events;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id
+FROM events
+WHERE event_date > timestamp '2026-06-01'
+  AND paid = false
+  AND (lower(annotation) LIKE '%саксофон%' OR lower(description) LIKE '%саксофон%')
+ORDER BY event_date
+LIMIT 10;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id
+FROM events
+WHERE event_date > timestamp '2026-06-01'
+  AND paid = false
+  AND (lower(annotation) LIKE '%открытым небом%' OR lower(description) LIKE '%открытым небом%')
+ORDER BY event_date
+LIMIT 10;
+
+-- 3. С индексами pg_trgm и сортировкой по похожести текста
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id
+FROM events
+WHERE event_date > timestamp '2026-06-01'
+  AND paid = false
+  AND (lower(annotation) LIKE '%саксофон%' OR lower(description) LIKE '%саксофон%')
+ORDER BY greatest(similarity(lower(annotation), 'саксофон'), similarity(lower(description), 'саксофон')) DESC
+LIMIT 10;
+
+\timing off
+
+DROP SCHEMA ewm_benchmark CASCADE;
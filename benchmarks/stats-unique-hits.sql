@@ -0,0 +1,110 @@
+-- Сравнение подсчета уникальных просмотров в сервисе статистики.
+--
+-- Скрипт создает схему ewm_benchmark с таблицей stats и индексом как в stat-service/src/main/resources/schema.sql,
+-- заполняет ее случайными просмотрами и выполняет:
+--   1. запросы прежнего подсчета уникальных просмотров: для каждого URI выборка всех уникальных IP-адресов без учета
+--      диапазона дат, затем отдельный запрос записей на каждый IP-адрес;
+--   2. один сгруппированный запрос COUNT(DISTINCT ip), который строит StatCustomRepositoryImpl.getStats.
+-- Прежний подсчет выполняется блоком DO на стороне сервера, поэтому в его время не входят сетевые задержки
+-- клиента на каждый запрос; количество запросов выводится в NOTICE.
+--
+-- Запуск (количество записей по умолчанию - 1000000):
+--   psql -d <база данных> -v rows=1000000 -f benchmarks/stats-unique-hits.sql
+-- Схема ewm_benchmark удаляется в конце скрипта.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+\set rows 1000000
+\endif
+
+DROP SCHEMA IF EXISTS ewm_benchmark CASCADE;
+CREATE SCHEMA ewm_benchmark;
+SET search_path = ewm_benchmark;
+
+CREATE TABLE stats
+(
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    app       VARCHAR(500)                            NOT NULL,
+    uri       VARCHAR(500)                            NOT NULL,
+    ip        VARCHAR(50)                             NOT NULL,
+    timestamp TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    CONSTRAINT pk_stats PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_stats_uri_timestamp ON stats (uri, timestamp);
+
+SELECT setseed(0.42);
+
+INSERT INTO stats (app, uri, ip, timestamp)
+SELECT 'ewm-main-service',
+       '/events/' || floor(random() * 1000)::int,
+       '10.0.' || floor(random() * 200)::int || '.' || floor(random() * 250)::int,
+       timestamp '2026-01-01' + random() * interval '60 days'
+FROM generate_series(1, :rows);
+
+ANALYZE stats;
+
+\timing on
+
+-- 1. Прежний подсчет: план запроса уникальных IP-адресов одного URI и одного запроса записей по IP-адресу
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT DISTINCT ip
+FROM stats
+WHERE uri = '/events/1';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, app, ip, timestamp, uri
+FROM stats
+WHERE timestamp BETWEEN '2026-01-01 00:00:00' AND '2026-01-31 00:00:00'
+  AND uri = '/events/1'
+  AND ip = (SELECT min(ip) FROM stats WHERE uri = '/events/1');
+
+-- 1. Прежний подсчет целиком для 10 URI
+DO
+$$
+    DECLARE
+        event_uri  text;
+        address    text;
+        hit        record;
+        statements bigint := 0;
+    BEGIN
+        FOR event_uri IN SELECT '/events/' || g FROM generate_series(1, 10) AS g
+            LOOP
+                statements := statements + 1;
+                FOR address IN SELECT DISTINCT ip FROM stats WHERE uri = event_uri
+                    LOOP
+                        SELECT id, app, ip, timestamp, uri
+                        INTO hit
+                        FROM stats
+                        WHERE timestamp BETWEEN '2026-01-01 00:00:00' AND '2026-01-31 00:00:00'
+                          AND uri = event_uri
+                          AND ip = address;
+                        statements := statements + 1;
+                    END LOOP;
+            END LOOP;
+        RAISE NOTICE 'Прежний подсчет: % запросов', statements;
+    END
+$$;
+
+-- 2. Один сгруппированный запрос для тех же 10 URI
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT app, uri, count(DISTINCT ip)
+FROM stats
+WHERE timestamp BETWEEN '2026-01-01 00:00:00' AND '2026-01-31 00:00:00'
+  AND uri IN ('/events/1', '/events/2', '/events/3', '/events/4', '/events/5',
+              '/events/6', '/events/7', '/events/8', '/events/9', '/events/10')
+GROUP BY app, uri
+ORDER BY count(DISTINCT ip) DESC;
+
+SELECT app, uri, count(DISTINCT ip)
+FROM stats
+WHERE timestamp BETWEEN '2026-01-01 00:00:00' AND '2026-01-31 00:00:00'
+  AND uri IN ('/events/1', '/events/2', '/events/3', '/events/4', '/events/5',
+              '/events/6', '/events/7', '/events/8', '/events/9', '/events/10')
+GROUP BY app, uri
+ORDER BY count(DISTINCT ip) DESC;
+
+\timing off
+
+DROP SCHEMA ewm_benchmark CASCADE;
@@ -0,0 +1,228 @@
+package ru.practicum.ewm.clients;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.ewm.models.dtos.stats.EndPointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченная очередь для асинхронной отправки информации о просмотренных эндпоинтах. Фоновый поток объединяет
+ * накопленные записи в пакеты и отправляет их одним запросом
+ *
+ * @since 1.1
+ */
+@Slf4j
+public class AsyncHitQueue {
+    /**
+     * Поведение очереди при отсутствии свободного места
+     *
+     * @since 1.1
+     */
+    public enum OverflowPolicy {
+        /**
+         * Сразу отбросить запись
+         *
+         * @since 1.1
+         */
+        DROP,
+        /**
+         * Подождать освобождения места не дольше заданного времени, после чего отбросить запись
+         *
+         * @since 1.1
+         */
+        BLOCK
+    }
+
+    /**
+     * Очередь записей, ожидающих отправки
+     *
+     * @since 1.1
+     */
+    private final BlockingQueue<EndPointHitDto> queue;
+
+    /**
+     * Функция отправки пакета записей
+     *
+     * @since 1.1
+     */
+    private final Consumer<List<EndPointHitDto>> sender;
+
+    /**
+     * Поведение очереди при отсутствии свободного места
+     *
+     * @since 1.1
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * Максимальное время ожидания свободного места в очереди для политики BLOCK, в миллисекундах
+     *
+     * @since 1.1
+     */
+    private final long blockTimeoutMs;
+
+    /**
+     * Максимальное количество записей в одном пакете
+     *
+     * @since 1.1
+     */
+    private final int batchSize;
+
+    /**
+     * Максимальное время ожидания записи в очереди перед отправкой, в наносекундах
+     *
+     * @since 1.1
+     */
+    private final long flushIntervalNanos;
+
+    /**
+     * Количество отправленных записей
+     *
+     * @since 1.1
+     */
+    private final Counter sentHits;
+
+    /**
+     * Количество отброшенных из-за переполнения очереди записей
+     *
+     * @since 1.1
+     */
+    private final Counter droppedHits;
+
+    /**
+     * Количество записей, которые не удалось отправить
+     *
+     * @since 1.1
+     */
+    private final Counter failedHits;
+
+    /**
+     * Фоновый поток, отправляющий записи из очереди
+     *
+     * @since 1.1
+     */
+    private final Thread worker;
+
+    /**
+     * Принимает ли очередь новые записи
+     *
+     * @since 1.1
+     */
+    private volatile boolean running = true;
+
+    public AsyncHitQueue(Consumer<List<EndPointHitDto>> sender, MeterRegistry meterRegistry, int capacity,
+                         OverflowPolicy overflowPolicy, long blockTimeoutMs, int batchSize, long flushIntervalMs) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sender = sender;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        meterRegistry.gauge("ewm.stats.hits.queue.size", queue, BlockingQueue::size);
+        this.sentHits = meterRegistry.counter("ewm.stats.hits", "result", "sent");
+        this.droppedHits = meterRegistry.counter("ewm.stats.hits", "result", "dropped");
+        this.failedHits = meterRegistry.counter("ewm.stats.hits", "result", "failed");
+        this.worker = new Thread(this::runWorker, "ewm-stats-hit-sender");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Метод позволяет поставить запись в очередь на отправку согласно политике переполнения
+     *
+     * @param hit информация о просмотренном эндпоинте
+     * @since 1.1
+     */
+    public void add(EndPointHitDto hit) {
+        boolean added;
+        if (!running) {
+            added = false;
+        } else if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                added = queue.offer(hit, blockTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                added = false;
+            }
+        } else {
+            added = queue.offer(hit);
+        }
+        if (!added) {
+            droppedHits.increment();
+            log.debug("Отброшена информация о просмотре эндпоинта uri={}.", hit.getUri());
+        }
+    }
+
+    /**
+     * Метод позволяет остановить очередь и отправить оставшиеся в ней записи
+     *
+     * @param timeoutMs максимальное время ожидания отправки, в миллисекундах
+     * @since 1.1
+     */
+    public void stop(long timeoutMs) throws InterruptedException {
+        running = false;
+        worker.join(timeoutMs);
+        if (worker.isAlive()) {
+            log.error("Не отправлено {} записей о просмотрах эндпоинтов за {} мс.", queue.size(), timeoutMs);
+        }
+    }
+
+    /**
+     * Основной цикл фонового потока: собирает пакет записей и отправляет его по размеру или по времени, а после
+     * остановки очереди отправляет все оставшиеся записи
+     *
+     * @since 1.1
+     */
+    private void runWorker() {
+        List<EndPointHitDto> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (running) {
+            try {
+                long wait = deadline - System.nanoTime();
+                EndPointHitDto hit = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                if (hit != null) {
+                    batch.add(hit);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (batch.size() >= batchSize || System.nanoTime() - deadline >= 0) {
+                send(batch);
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+        }
+        do {
+            queue.drainTo(batch, batchSize - batch.size());
+            send(batch);
+        } while (!queue.isEmpty());
+    }
+
+    /**
+     * Метод позволяет отправить пакет записей и очистить его
+     *
+     * @param batch пакет записей
+     * @since 1.1
+     */
+    private void send(List<EndPointHitDto> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sender.accept(batch);
+            sentHits.increment(batch.size());
+        } catch (RuntimeException e) {
+            failedHits.increment(batch.size());
+            log.error("Не удалось отправить {} записей о просмотрах эндпоинтов: {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+}
@@ -21,8 +21,16 @@ public class BaseClient {
      */
     protected final RestTemplate rest;
 
-    public BaseClient(RestTemplate rest) {
+    /**
+     * Автоматический выключатель, через который выполняются запросы
+     *
+     * @since 1.1
+     */
+    protected final CircuitBreaker circuitBreaker;
+
+    public BaseClient(RestTemplate rest, CircuitBreaker circuitBreaker) {
         this.rest = rest;
+        this.circuitBreaker = circuitBreaker;
     }
 
     /**
@@ -31,10 +39,12 @@ public class BaseClient {
      * @param path       путь запроса
      * @param parameters параметры запроса
      * @return список Dto статистики просмотров эндпоинтов
+     * @throws CircuitBreaker.OpenException если выключатель разомкнут
      * @since 1.0
      */
     protected ViewStatsDto[] get(String path, Map<String, Object> parameters) {
-        ResponseEntity<ViewStatsDto[]> ewmServerResponse = rest.getForEntity(path, ViewStatsDto[].class, parameters);
+        ResponseEntity<ViewStatsDto[]> ewmServerResponse = circuitBreaker.call(
+                () -> rest.getForEntity(path, ViewStatsDto[].class, parameters));
         return ewmServerResponse.getBody();
     }
 
@@ -44,11 +54,12 @@ public class BaseClient {
      * @param path путь запроса
      * @param body тело запроса
      * @param <T>  тип возвращаемого значения
+     * @throws CircuitBreaker.OpenException если выключатель разомкнут
      * @since 1.0
      */
     protected <T> void post(String path, T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
-        rest.exchange(path, HttpMethod.POST, requestEntity, Object.class, Optional.empty());
+        circuitBreaker.call(() -> rest.exchange(path, HttpMethod.POST, requestEntity, Object.class, Optional.empty()));
     }
 
     /**
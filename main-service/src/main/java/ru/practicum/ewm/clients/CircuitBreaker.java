@@ -0,0 +1,212 @@
+package ru.practicum.ewm.clients;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Автоматический выключатель для запросов к сервису статистики. После заданного количества ошибок подряд
+ * выключатель размыкается и сразу отклоняет запросы, а по истечении времени ожидания пропускает один пробный
+ * запрос, по результату которого замыкается или снова размыкается
+ *
+ * @since 1.1
+ */
+@Slf4j
+public class CircuitBreaker {
+    /**
+     * Состояние выключателя
+     *
+     * @since 1.1
+     */
+    public enum State {
+        /**
+         * Запросы выполняются
+         *
+         * @since 1.1
+         */
+        CLOSED,
+        /**
+         * Запросы отклоняются без обращения к сервису статистики
+         *
+         * @since 1.1
+         */
+        OPEN,
+        /**
+         * Выполняется пробный запрос, остальные запросы отклоняются
+         *
+         * @since 1.1
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Исключение, выбрасываемое при отклонении запроса разомкнутым выключателем
+     *
+     * @since 1.1
+     */
+    public static class OpenException extends RuntimeException {
+        public OpenException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Количество ошибок подряд, после которого выключатель размыкается
+     *
+     * @since 1.1
+     */
+    private final int failureThreshold;
+
+    /**
+     * Время, в течение которого выключатель остается разомкнутым, в наносекундах
+     *
+     * @since 1.1
+     */
+    private final long openDurationNanos;
+
+    /**
+     * Количество размыканий выключателя
+     *
+     * @since 1.1
+     */
+    private final Counter trips;
+
+    /**
+     * Количество отклоненных запросов
+     *
+     * @since 1.1
+     */
+    private final Counter rejectedCalls;
+
+    /**
+     * Текущее состояние выключателя
+     *
+     * @since 1.1
+     */
+    private State state = State.CLOSED;
+
+    /**
+     * Количество ошибок подряд
+     *
+     * @since 1.1
+     */
+    private int failures;
+
+    /**
+     * Момент размыкания выключателя, в наносекундах
+     *
+     * @since 1.1
+     */
+    private long openedAt;
+
+    public CircuitBreaker(MeterRegistry meterRegistry, int failureThreshold, long openDurationMs) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        meterRegistry.gauge("ewm.stats.circuit.state", this, breaker -> breaker.getState().ordinal());
+        this.trips = meterRegistry.counter("ewm.stats.circuit.trips");
+        this.rejectedCalls = meterRegistry.counter("ewm.stats.circuit.rejected");
+    }
+
+    /**
+     * Метод позволяет выполнить запрос через выключатель
+     *
+     * @param call запрос
+     * @param <T>  тип возвращаемого значения
+     * @return результат запроса
+     * @throws OpenException если выключатель разомкнут
+     * @since 1.1
+     */
+    public <T> T call(Supplier<T> call) {
+        if (!tryAcquire()) {
+            rejectedCalls.increment();
+            throw new OpenException("Сервис статистики недоступен.");
+        }
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (HttpClientErrorException e) {
+            onSuccess();
+            throw e;
+        } catch (Throwable e) {
+            onFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Метод позволяет получить текущее состояние выключателя
+     *
+     * @return состояние выключателя
+     * @since 1.1
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Метод позволяет получить количество размыканий выключателя
+     *
+     * @return количество размыканий
+     * @since 1.1
+     */
+    public long getTrips() {
+        return (long) trips.count();
+    }
+
+    /**
+     * Метод позволяет проверить, можно ли выполнить запрос, и перевести разомкнутый выключатель в режим пробного
+     * запроса по истечении времени ожидания
+     *
+     * @return можно ли выполнить запрос
+     * @since 1.1
+     */
+    private synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= openDurationNanos) {
+                    state = State.HALF_OPEN;
+                    log.info("Выключатель сервиса статистики пропускает пробный запрос.");
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Метод позволяет зафиксировать успешный запрос и замкнуть выключатель
+     *
+     * @since 1.1
+     */
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Выключатель сервиса статистики замкнут.");
+        }
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    /**
+     * Метод позволяет зафиксировать ошибку запроса и разомкнуть выключатель, если ошибок подряд слишком много или
+     * не удался пробный запрос
+     *
+     * @since 1.1
+     */
+    private synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            trips.increment();
+            log.warn("Выключатель сервиса статистики разомкнут после {} ошибок подряд.", failures);
+        }
+    }
+}
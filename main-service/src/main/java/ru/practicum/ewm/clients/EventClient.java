@@ -1,5 +1,8 @@
 package ru.practicum.ewm.clients;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -9,10 +12,17 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.ewm.models.dtos.stats.EndPointHitDto;
 import ru.practicum.ewm.models.dtos.stats.ViewStatsDto;
 
+import javax.annotation.PreDestroy;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.util.stream.Collectors.joining;
 
@@ -22,6 +32,7 @@ import static java.util.stream.Collectors.joining;
  * @since 1.0
  */
 @Service
+@Slf4j
 public class EventClient extends BaseClient {
     /**
      * Константа префикса пути POST запроса
@@ -37,18 +48,80 @@ public class EventClient extends BaseClient {
      */
     private static final String API_PREFIX_STATS = "/stats";
 
+    /**
+     * Константа префикса пути POST запроса для пакета записей
+     *
+     * @since 1.1
+     */
+    private static final String API_PREFIX_HITS = "/hits";
+
+    /**
+     * Очередь асинхронной отправки информации о просмотренных эндпоинтах (null, если отправка синхронная)
+     *
+     * @since 1.1
+     */
+    private final AsyncHitQueue hitQueue;
+
+    /**
+     * Максимальное время ожидания отправки оставшихся записей при остановке сервиса, в миллисекундах
+     *
+     * @since 1.1
+     */
+    private final long shutdownTimeoutMs;
+
+    /**
+     * Выполняющиеся в данный момент запросы статистики по ключу параметров запроса
+     *
+     * @since 1.1
+     */
+    private final ConcurrentMap<String, CompletableFuture<ViewStatsDto[]>> inFlightStats = new ConcurrentHashMap<>();
+
     @Autowired
-    public EventClient(@Value("${ewm-stats.url}") String serverUrl, RestTemplateBuilder builder) {
+    public EventClient(@Value("${ewm-stats.url}") String serverUrl, RestTemplateBuilder builder,
+                       MeterRegistry meterRegistry,
+                       @Value("${ewm-stats.hits.async:true}") boolean async,
+                       @Value("${ewm-stats.hits.queue-capacity:10000}") int queueCapacity,
+                       @Value("${ewm-stats.hits.overflow-policy:DROP}") AsyncHitQueue.OverflowPolicy overflowPolicy,
+                       @Value("${ewm-stats.hits.block-timeout-ms:50}") long blockTimeoutMs,
+                       @Value("${ewm-stats.hits.batch-size:100}") int batchSize,
+                       @Value("${ewm-stats.hits.flush-interval-ms:500}") long flushIntervalMs,
+                       @Value("${ewm-stats.hits.shutdown-timeout-ms:5000}") long shutdownTimeoutMs,
+                       @Value("${ewm-stats.connect-timeout-ms:1000}") long connectTimeoutMs,
+                       @Value("${ewm-stats.read-timeout-ms:2000}") long readTimeoutMs,
+                       @Value("${ewm-stats.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                       @Value("${ewm-stats.circuit-breaker.open-duration-ms:10000}") long openDurationMs,
+                       CloseableHttpClient statsHttpClient,
+                       @Value("${ewm-stats.http.gzip-requests:false}") boolean gzipRequests,
+                       @Value("${ewm-stats.http.gzip-min-size:1024}") int gzipMinSize) {
         super(
-                builder
+                (gzipRequests ? builder.additionalInterceptors(new GzipRequestInterceptor(gzipMinSize)) : builder)
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(statsHttpClient))
+                        .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                        .setReadTimeout(Duration.ofMillis(readTimeoutMs))
+                        .build(),
+                new CircuitBreaker(meterRegistry, failureThreshold, openDurationMs)
         );
+        this.hitQueue = async
+                ? new AsyncHitQueue(hits -> post(API_PREFIX_HITS, hits), meterRegistry, queueCapacity, overflowPolicy,
+                blockTimeoutMs, batchSize, flushIntervalMs)
+                : null;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    /**
+     * Метод позволяет получить автоматический выключатель запросов к сервису статистики
+     *
+     * @return автоматический выключатель
+     * @since 1.1
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
     /**
-     * Метод позволяет добавить информацию о просмотренном эндпоинте
+     * Метод позволяет добавить информацию о просмотренном эндпоинте. При асинхронной отправке информация ставится в
+     * очередь и отправляется пакетом в фоновом потоке. Ошибка синхронной отправки не прерывает обработку запроса
      *
      * @param app идентификатор сервиса, просмотревшего эндпоинт
      * @param uri путь запроса просмотренного эндпоинта
@@ -56,11 +129,34 @@ public class EventClient extends BaseClient {
      * @since 1.0
      */
     public void addHit(String app, String uri, String ip) {
-        post(API_PREFIX_HIT, new EndPointHitDto(app, uri, ip));
+        EndPointHitDto hit = new EndPointHitDto(app, uri, ip);
+        if (hitQueue != null) {
+            hitQueue.add(hit);
+        } else {
+            try {
+                post(API_PREFIX_HIT, hit);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось отправить информацию о просмотре эндпоинта uri={}: {}", uri, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Метод позволяет отправить оставшуюся в очереди информацию о просмотренных эндпоинтах при остановке сервиса
+     *
+     * @since 1.1
+     */
+    @PreDestroy
+    private void stopHitQueue() throws InterruptedException {
+        if (hitQueue != null) {
+            hitQueue.stop(shutdownTimeoutMs);
+        }
     }
 
     /**
-     * Метод позволяет получить список Dto статистики просмотров эндпоинтов, подходящих под заданные условия
+     * Метод позволяет получить список Dto статистики просмотров эндпоинтов, подходящих под заданные условия.
+     * Одновременные запросы с одинаковыми параметрами объединяются в один HTTP запрос, результат которого получают
+     * все ожидающие потоки
      *
      * @param start  дата и время, не раньше которых должен быть выполнен просмотр эндпоинта
      * @param end    дата и время, не позже которых должен быть выполнен просмотр эндпоинта
@@ -70,6 +166,47 @@ public class EventClient extends BaseClient {
      * @since 1.0
      */
     public ViewStatsDto[] getStats(String start, String end, String[] uris, Boolean unique) {
+        String[] sortedUris = uris.clone();
+        Arrays.sort(sortedUris);
+        String key = String.join("|", start, end, String.valueOf(unique), String.join(",", sortedUris));
+        CompletableFuture<ViewStatsDto[]> request = new CompletableFuture<>();
+        CompletableFuture<ViewStatsDto[]> inFlightRequest = inFlightStats.putIfAbsent(key, request);
+        if (inFlightRequest != null) {
+            try {
+                return inFlightRequest.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+        try {
+            ViewStatsDto[] stats = requestStats(start, end, uris, unique);
+            request.complete(stats);
+            return stats;
+        } catch (Throwable e) {
+            request.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightStats.remove(key, request);
+        }
+    }
+
+    /**
+     * Метод позволяет выполнить GET запрос статистики просмотров эндпоинтов к сервису статистики
+     *
+     * @param start  дата и время, не раньше которых должен быть выполнен просмотр эндпоинта
+     * @param end    дата и время, не позже которых должен быть выполнен просмотр эндпоинта
+     * @param uris   список путей запросов эндпоинтов
+     * @param unique искать только уникальные запросы (только с уникальным ip-адресом)
+     * @return список Dto статистики просмотров эндпоинтов
+     * @since 1.1
+     */
+    private ViewStatsDto[] requestStats(String start, String end, String[] uris, Boolean unique) {
         Map<String, String> times = Map.of(
                 "start", start,
                 "end", end
@@ -78,7 +215,7 @@ public class EventClient extends BaseClient {
                 .map(key -> key + "=" + encodeParameter(times.get(key)))
                 .collect(joining("&", API_PREFIX_STATS + "?", ""));
         Map<String, Object> parameters = Map.of(
-                "uris", uris,
+                "uris", String.join(",", uris),
                 "unique", unique
         );
         return get(encodedURL + "&uris={uris}&unique={unique}", parameters);
@@ -0,0 +1,43 @@
+package ru.practicum.ewm.clients;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Перехватчик, сжимающий тела HTTP запросов алгоритмом gzip, если их размер не меньше заданного
+ *
+ * @since 1.1
+ */
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+    /**
+     * Минимальный размер тела запроса для сжатия, в байтах
+     *
+     * @since 1.1
+     */
+    private final int minSize;
+
+    public GzipRequestInterceptor(int minSize) {
+        this.minSize = minSize;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (body.length == 0 || body.length < minSize) {
+            return execution.execute(request, body);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return execution.execute(request, compressed.toByteArray());
+    }
+}
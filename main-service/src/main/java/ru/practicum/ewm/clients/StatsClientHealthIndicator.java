@@ -0,0 +1,37 @@
+package ru.practicum.ewm.clients;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Индикатор состояния подключения к сервису статистики. Пока выключатель разомкнут, сервис работает в режиме
+ * деградации и индикатор возвращает статус UNKNOWN, не влияющий на общий статус приложения
+ *
+ * @since 1.1
+ */
+@Component("statsClient")
+public class StatsClientHealthIndicator implements HealthIndicator {
+    /**
+     * Автоматический выключатель запросов к сервису статистики
+     *
+     * @since 1.1
+     */
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    public StatsClientHealthIndicator(EventClient eventClient) {
+        this.circuitBreaker = eventClient.getCircuitBreaker();
+    }
+
+    @Override
+    public Health health() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return Health.status(state == CircuitBreaker.State.CLOSED ? Status.UP : Status.UNKNOWN)
+                .withDetail("circuitBreaker", state)
+                .withDetail("trips", circuitBreaker.getTrips())
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.ewm.clients;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конфигурация HTTP клиента для обмена данными с сервисом статистики: пул постоянных соединений с ограничением
+ * общего количества соединений и количества соединений на один хост
+ *
+ * @since 1.1
+ */
+@Configuration
+public class StatsHttpClientConfig {
+    /**
+     * Метод позволяет создать HTTP клиент с пулом соединений к сервису статистики
+     *
+     * @param meterRegistry       реестр метрик
+     * @param maxTotal            максимальное общее количество соединений
+     * @param maxPerRoute         максимальное количество соединений к одному хосту
+     * @param leaseTimeoutMs      максимальное время ожидания свободного соединения из пула, в миллисекундах
+     * @param keepAliveMs         время жизни простаивающего соединения, если сервер не указал его сам, в миллисекундах
+     * @param idleEvictionMs      время простоя, после которого соединение закрывается фоновым потоком, в миллисекундах
+     * @param responseCompression запрашивать ли сжатые gzip ответы
+     * @return HTTP клиент
+     * @since 1.1
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient statsHttpClient(MeterRegistry meterRegistry,
+                                               @Value("${ewm-stats.http.max-total:100}") int maxTotal,
+                                               @Value("${ewm-stats.http.max-per-route:50}") int maxPerRoute,
+                                               @Value("${ewm-stats.http.lease-timeout-ms:500}") int leaseTimeoutMs,
+                                               @Value("${ewm-stats.http.keep-alive-ms:30000}") long keepAliveMs,
+                                               @Value("${ewm-stats.http.idle-eviction-ms:60000}") long idleEvictionMs,
+                                               @Value("${ewm-stats.http.gzip-responses:true}") boolean responseCompression) {
+        TimedConnectionManager connectionManager =
+                new TimedConnectionManager(meterRegistry.timer("ewm.stats.http.pool.lease"));
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "ewm-stats").bindTo(meterRegistry);
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(leaseTimeoutMs)
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? keepAlive : keepAliveMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictionMs, TimeUnit.MILLISECONDS);
+        if (!responseCompression) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Пул соединений, измеряющий время ожидания выдачи соединения
+     *
+     * @since 1.1
+     */
+    private static class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+        /**
+         * Время ожидания выдачи соединения из пула
+         *
+         * @since 1.1
+         */
+        private final Timer leaseTimer;
+
+        TimedConnectionManager(Timer leaseTimer) {
+            this.leaseTimer = leaseTimer;
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest request = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return request.get(timeout, timeUnit);
+                    } finally {
+                        leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+    }
+}
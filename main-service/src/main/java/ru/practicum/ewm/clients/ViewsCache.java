@@ -0,0 +1,137 @@
+package ru.practicum.ewm.clients;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+/**
+ * Локальный кэш количества просмотров эндпоинтов событий, стоящий перед {@link EventClient#getStats}. Кэш ограничен
+ * по размеру, записи устаревают через заданное время, а часто запрашиваемые записи заранее обновляются в фоне
+ *
+ * @since 1.1
+ */
+@Component
+@Slf4j
+public class ViewsCache {
+    /**
+     * Константа даты и времени, не раньше которых нужно выполнять поиск
+     *
+     * @since 1.0
+     */
+    private static final String START = "1970-01-01 00:00:00";
+
+    /**
+     * Константа даты и времени, не позже которых нужно выполнять поиск
+     *
+     * @since 1.0
+     */
+    private static final String END = "2500-12-31 23:59:59";
+
+    /**
+     * Класс для работы с просмотрами эндпоинтов событий
+     *
+     * @since 1.1
+     */
+    private final EventClient eventClient;
+
+    /**
+     * Кэш количества просмотров по URI (null, если кэширование отключено)
+     *
+     * @since 1.1
+     */
+    private final LoadingCache<String, Integer> cache;
+
+    @Autowired
+    public ViewsCache(EventClient eventClient, MeterRegistry meterRegistry,
+                      @Value("${ewm-stats.views-cache.enabled:true}") boolean enabled,
+                      @Value("${ewm-stats.views-cache.maximum-size:10000}") long maximumSize,
+                      @Value("${ewm-stats.views-cache.expire-after-write-ms:60000}") long expireAfterWriteMs,
+                      @Value("${ewm-stats.views-cache.refresh-after-write-ms:10000}") long refreshAfterWriteMs) {
+        this.eventClient = eventClient;
+        if (enabled) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                    .refreshAfterWrite(Duration.ofMillis(refreshAfterWriteMs))
+                    .recordStats()
+                    .build(new ViewsLoader());
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "ewm.views");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Метод позволяет получить количество просмотров для набора URI. Отсутствующие в кэше URI запрашиваются у
+     * сервиса статистики одним запросом. Если сервис статистики недоступен, возвращаются закэшированные значения, а
+     * для остальных URI - 0
+     *
+     * @param uris список URI
+     * @return количество просмотров по каждому URI
+     * @since 1.1
+     */
+    public Map<String, Integer> getViews(Collection<String> uris) {
+        try {
+            if (cache == null) {
+                return loadViews(uris);
+            }
+            return cache.getAll(uris);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось получить просмотры от сервиса статистики: {}", e.getMessage());
+            Map<String, Integer> views = cache == null ? new HashMap<>() : new HashMap<>(cache.getAllPresent(uris));
+            for (String uri : uris) {
+                views.putIfAbsent(uri, 0);
+            }
+            return views;
+        }
+    }
+
+    /**
+     * Метод позволяет запросить количество просмотров для набора URI у сервиса статистики
+     *
+     * @param uris список URI
+     * @return количество просмотров по каждому URI (0 для URI без просмотров)
+     * @since 1.1
+     */
+    private Map<String, Integer> loadViews(Iterable<? extends String> uris) {
+        String[] uriArray = StreamSupport.stream(uris.spliterator(), false).toArray(String[]::new);
+        Map<String, Integer> views = new HashMap<>();
+        for (String uri : uriArray) {
+            views.put(uri, 0);
+        }
+        Arrays.stream(eventClient.getStats(START, END, uriArray, false))
+                .forEach(stats -> views.merge(stats.getUri(), stats.getHits(), Integer::sum));
+        return views;
+    }
+
+    /**
+     * Загрузчик записей кэша, запрашивающий количество просмотров у сервиса статистики
+     *
+     * @since 1.1
+     */
+    private class ViewsLoader implements CacheLoader<String, Integer> {
+        @Override
+        public Integer load(String uri) {
+            return loadViews(List.of(uri)).get(uri);
+        }
+
+        @Override
+        public Map<String, Integer> loadAll(Iterable<? extends String> uris) {
+            return loadViews(uris);
+        }
+    }
+}
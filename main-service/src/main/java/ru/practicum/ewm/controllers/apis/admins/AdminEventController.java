@@ -4,9 +4,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.controllers.apis.admins.dtos.events.AdminUpdateEventRequestDto;
+import ru.practicum.ewm.models.CursorPage;
 import ru.practicum.ewm.models.dtos.events.EventFullDto;
 import ru.practicum.ewm.services.EventService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -43,6 +45,7 @@ public class AdminEventController {
      * @param rangeEnd   дата и время, не позже которых должно произойти событие
      * @param from       количество событий, которые нужно пропустить для формирования текущего набора(по умолчанию 0)
      * @param size       количество событий в наборе(по умолчанию 10)
+     * @param cursor     курсор предыдущего набора из заголовка X-Next-Cursor (если передан, from не используется)
      * @return полная информация обо всех событиях подходящих под переданные условия
      * @since 1.0
      */
@@ -64,8 +67,15 @@ public class AdminEventController {
                                                  int from,
                                                  @RequestParam
                                                  @Positive(message = "может быть только больше 0")
-                                                 int size) {
-        return eventService.searchEventsToAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+                                                 int size,
+                                                 @RequestParam(required = false) String cursor,
+                                                 HttpServletResponse response) {
+        CursorPage<EventFullDto> page = eventService.searchEventsToAdmin(users, states, categories, rangeStart,
+                rangeEnd, from, size, cursor);
+        if (page.getNextCursor() != null) {
+            response.setHeader(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getItems();
     }
 
     /**
@@ -0,0 +1,36 @@
+package ru.practicum.ewm.controllers.apis.admins;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.ewm.services.LikeService;
+
+/**
+ * Контроллер для работы администратора с рейтингами событий и пользователей
+ *
+ * @since 1.1
+ */
+@RestController
+@RequestMapping(path = "/admin/ratings")
+public class AdminRatingController {
+    private final LikeService likeService;
+
+    @Autowired
+    public AdminRatingController(LikeService likeService) {
+        this.likeService = likeService;
+    }
+
+    /**
+     * Метод позволяет запустить фоновый пересчет рейтингов всех событий и пользователей
+     *
+     * @since 1.1
+     */
+    @PostMapping("/recompute")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void recomputeRatings() {
+        likeService.recomputeRatings();
+    }
+}
@@ -5,10 +5,12 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.events.NewEventDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.events.UpdateEventRequestDto;
+import ru.practicum.ewm.models.CursorPage;
 import ru.practicum.ewm.models.dtos.events.EventFullDto;
 import ru.practicum.ewm.models.dtos.events.EventShortDto;
 import ru.practicum.ewm.services.EventService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -41,6 +43,7 @@ public class AuthorizedUserEventController {
      * @param userId идентификатор пользователя {@link ru.practicum.ewm.models.User}
      * @param from   количество элементов, которые нужно пропустить для формирования текущего набора(по умолчанию 0)
      * @param size   количество элементов в наборе(по умолчанию 10)
+     * @param cursor курсор предыдущего набора из заголовка X-Next-Cursor (если передан, from не используется)
      * @return краткая информация о событиях пользователя, подходящих под заданные условия
      * @since 1.0
      */
@@ -49,8 +52,14 @@ public class AuthorizedUserEventController {
                                                    @RequestParam(defaultValue = "0")
                                                    @PositiveOrZero(message = "может быть равно или больше 0") int from,
                                                    @RequestParam(defaultValue = "10")
-                                                   @Positive(message = "может быть только больше 0") int size) {
-        return eventService.getUserEvents(userId, from, size);
+                                                   @Positive(message = "может быть только больше 0") int size,
+                                                   @RequestParam(required = false) String cursor,
+                                                   HttpServletResponse response) {
+        CursorPage<EventShortDto> page = eventService.getUserEvents(userId, from, size, cursor);
+        if (page.getNextCursor() != null) {
+            response.setHeader(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getItems();
     }
 
     /**
@@ -2,9 +2,12 @@ package ru.practicum.ewm.controllers.apis.authorizedusers;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.EventRequestStatusUpdateDto;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.EventRequestStatusUpdateResultDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.ParticipationRequestDto;
 import ru.practicum.ewm.services.RequestService;
 
+import javax.validation.Valid;
 import java.util.Collection;
 
 /**
@@ -68,6 +71,23 @@ public class AuthorizedUserRequestController {
         return requestService.rejectEventRequest(userId, eventId, reqId);
     }
 
+    /**
+     * Метод позволяет пользователю одной операцией подтвердить или отклонить несколько запросов на участие в его
+     * событии
+     * @param userId идентификатор пользователя {@link ru.practicum.ewm.models.User}
+     * @param eventId идентификатор события {@link ru.practicum.ewm.models.Event}
+     * @param updateDto идентификаторы запросов и новый статус (CONFIRMED или REJECTED)
+     * @return результат обработки каждого запроса
+     * @since 1.1
+     */
+    @PatchMapping("/events/{eventId}/requests")
+    public Collection<EventRequestStatusUpdateResultDto> updateEventRequestsStatus(
+            @PathVariable int userId,
+            @PathVariable int eventId,
+            @Valid @RequestBody EventRequestStatusUpdateDto updateDto) {
+        return requestService.updateEventRequestsStatus(userId, eventId, updateDto);
+    }
+
     /**
      * Метод позволяет пользователю получить список всех его запросов на участие событиях
      * @param userId идентификатор пользователя {@link ru.practicum.ewm.models.User}
@@ -0,0 +1,40 @@
+package ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.validation.annotation.Validated;
+import ru.practicum.ewm.models.RequestState;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Класс Dto, описывающий пакетное изменение статуса запросов на участие в событии организатором события
+ *
+ * @since 1.1
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Validated
+public class EventRequestStatusUpdateDto {
+    /**
+     * Идентификаторы запросов на участие в событии
+     *
+     * @since 1.1
+     */
+    @NotNull(message = "должно быть заполнено")
+    @NotEmpty(message = "не должно быть пустым")
+    private List<Integer> requestIds;
+    /**
+     * Новый статус запросов на участие в событии (CONFIRMED или REJECTED)
+     *
+     * @since 1.1
+     */
+    @NotNull(message = "должно быть заполнено")
+    private RequestState status;
+}
@@ -0,0 +1,40 @@
+package ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Класс Dto, описывающий результат изменения статуса одного запроса на участие в событии при пакетном изменении
+ *
+ * @since 1.1
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class EventRequestStatusUpdateResultDto {
+    /**
+     * Идентификатор запроса на участие в событии
+     *
+     * @since 1.1
+     */
+    private int requestId;
+    /**
+     * Изменен ли статус запроса
+     *
+     * @since 1.1
+     */
+    private boolean updated;
+    /**
+     * Статус запроса после обработки (null, если запрос не найден)
+     *
+     * @since 1.1
+     */
+    private String status;
+    /**
+     * Причина, по которой статус запроса не изменен (null, если статус изменен)
+     *
+     * @since 1.1
+     */
+    private String reason;
+}
@@ -3,12 +3,14 @@ package ru.practicum.ewm.controllers.apis.nonauthorizedusers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.ewm.models.CursorPage;
 import ru.practicum.ewm.models.FilterCollector;
 import ru.practicum.ewm.models.dtos.events.EventFullDto;
 import ru.practicum.ewm.models.dtos.events.EventShortDto;
 import ru.practicum.ewm.services.EventService;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.*;
 import java.util.Collection;
 
@@ -35,17 +37,21 @@ public class NonAuthorizedUserEventController {
     /**
      * Метод позволяет получить коллекцию Dto с кратким описанием событий, подходящих под заданные условия
      *
-     * @param text          текст для поиска в содержимом аннотации и подробном описании события
+     * @param text          текст для поиска в содержимом аннотации и подробном описании события. По умолчанию
+     *                      ищется подстрока текста. Если включен индекс опубликованных событий, первый набор без
+     *                      курсора ищется по индексу: событие подходит, если в нем есть слова, начинающиеся с каждого
+     *                      слова текста поиска. Такой набор возвращается без курсора и листается через from
      * @param categories    список идентификаторов категорий, в которых будет вестись поиск
      * @param paid          поиск только платных/бесплатных событий
      * @param rangeStart    дата и время, не раньше которых должно произойти событие
      * @param rangeEnd      дата и время, не позже которых должно произойти событие
      * @param onlyAvailable дата и время не позже которых должно произойти событие (по умолчанию false)
      * @param sort          параметр для сортировки событий (VIEWS - количество просмотров, EVENT_DATE - дата начала
-     *                      события, RATING - рейтинг события)
+     *                      события, RATING - рейтинг события, RELEVANCE - релевантность тексту поиска)
      * @param from          количество событий, которые нужно пропустить для формирования текущего набора
      *                      (по умолчанию 0)
      * @param size          количество событий в наборе (по умолчанию 10)
+     * @param cursor        курсор предыдущего набора из заголовка X-Next-Cursor (если передан, from не используется)
      * @return коллекция Dto с кратким описанием событий
      * @since 1.0
      */
@@ -70,7 +76,9 @@ public class NonAuthorizedUserEventController {
                                                   @PositiveOrZero(message = "может быть равно или больше 0") int from,
                                                   @RequestParam(defaultValue = "10")
                                                   @Positive(message = "может быть только больше 0") int size,
-                                                  HttpServletRequest request) {
+                                                  @RequestParam(required = false) String cursor,
+                                                  HttpServletRequest request,
+                                                  HttpServletResponse response) {
         FilterCollector filt = new FilterCollector();
         filt.setText(text);
         filt.setCategories(categories);
@@ -81,7 +89,12 @@ public class NonAuthorizedUserEventController {
         filt.setSort(sort);
         filt.setFrom(from);
         filt.setSize(size);
-        return eventService.getAllEvents(filt, request);
+        filt.setCursor(cursor);
+        CursorPage<EventShortDto> page = eventService.getAllEvents(filt, request);
+        if (page.getNextCursor() != null) {
+            response.setHeader(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getItems();
     }
 
     /**
@@ -0,0 +1,95 @@
+package ru.practicum.ewm.controllers.apis.nonauthorizedusers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.users.UserShortDto;
+import ru.practicum.ewm.models.CursorPage;
+import ru.practicum.ewm.models.dtos.events.EventShortDto;
+import ru.practicum.ewm.services.EventService;
+import ru.practicum.ewm.services.UserService;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import java.util.Collection;
+
+/**
+ * Класс для работы неавторизованного пользователя с рейтингами событий и организаторов событий
+ *
+ * @since 1.1
+ */
+@RestController
+@Validated
+@RequestMapping(path = "/ratings")
+public class NonAuthorizedUserRatingController {
+    /**
+     * Сервис для работы с событиями
+     *
+     * @since 1.1
+     */
+    private final EventService eventService;
+
+    /**
+     * Сервис для работы с пользователями
+     *
+     * @since 1.1
+     */
+    private final UserService userService;
+
+    @Autowired
+    public NonAuthorizedUserRatingController(EventService eventService, UserService userService) {
+        this.eventService = eventService;
+        this.userService = userService;
+    }
+
+    /**
+     * Метод позволяет получить опубликованные события с наибольшим рейтингом в порядке убывания рейтинга
+     *
+     * @param categoryId идентификатор категории (по умолчанию все категории)
+     * @param cursor     курсор предыдущего набора из заголовка X-Next-Cursor (по умолчанию первый набор)
+     * @param size       количество событий в наборе (по умолчанию 10)
+     * @return список Dto с кратким описанием событий
+     * @since 1.1
+     */
+    @GetMapping("/events")
+    public Collection<EventShortDto> getTopRatedEvents(@RequestParam(name = "category", required = false)
+                                                       Integer categoryId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "10")
+                                                       @Positive(message = "может быть только больше 0")
+                                                       @Max(value = 100, message = "не может быть больше 100")
+                                                       int size,
+                                                       HttpServletResponse response) {
+        CursorPage<EventShortDto> page = eventService.getTopRatedEvents(categoryId, cursor, size);
+        if (page.getNextCursor() != null) {
+            response.setHeader(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getItems();
+    }
+
+    /**
+     * Метод позволяет получить организаторов событий с наибольшим рейтингом в порядке убывания рейтинга
+     *
+     * @param cursor курсор предыдущего набора из заголовка X-Next-Cursor (по умолчанию первый набор)
+     * @param size   количество пользователей в наборе (по умолчанию 10)
+     * @return список Dto с краткой информацией о пользователях
+     * @since 1.1
+     */
+    @GetMapping("/users")
+    public Collection<UserShortDto> getTopRatedUsers(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "10")
+                                                     @Positive(message = "может быть только больше 0")
+                                                     @Max(value = 100, message = "не может быть больше 100")
+                                                     int size,
+                                                     HttpServletResponse response) {
+        CursorPage<UserShortDto> page = userService.getTopRatedUsers(cursor, size);
+        if (page.getNextCursor() != null) {
+            response.setHeader(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getItems();
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.ewm.models;
+
+/**
+ * Интерфейс проекции, описывающий количество подтвержденных запросов на участие в событии
+ *
+ * @since 1.1
+ */
+public interface ConfirmedRequestsCount {
+    /**
+     * Метод позволяет получить идентификатор события
+     *
+     * @return идентификатор события
+     * @since 1.1
+     */
+    Integer getEventId();
+
+    /**
+     * Метод позволяет получить количество подтвержденных запросов на участие в событии
+     *
+     * @return количество подтвержденных запросов
+     * @since 1.1
+     */
+    Integer getConfirmedRequests();
+}
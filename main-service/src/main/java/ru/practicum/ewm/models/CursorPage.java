@@ -0,0 +1,37 @@
+package ru.practicum.ewm.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * Класс, описывающий набор элементов постраничной выборки и курсор следующего набора
+ *
+ * @param <T> тип элементов набора
+ * @since 1.1
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    /**
+     * Заголовок ответа, в котором клиенту передается курсор следующего набора
+     *
+     * @since 1.1
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Элементы набора
+     *
+     * @since 1.1
+     */
+    private final Collection<T> items;
+
+    /**
+     * Курсор следующего набора (null, если набор последний)
+     *
+     * @since 1.1
+     */
+    private final String nextCursor;
+}
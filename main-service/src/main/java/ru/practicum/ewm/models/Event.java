@@ -21,7 +21,16 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "events")
+@NamedEntityGraph(name = Event.CATEGORY_AND_INITIATOR_GRAPH, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("initiator")})
 public class Event {
+    /**
+     * Имя графа сущности, загружающего событие вместе с категорией и организатором одним запросом
+     *
+     * @since 1.1
+     */
+    public static final String CATEGORY_AND_INITIATOR_GRAPH = "Event.categoryAndInitiator";
     /**
      * Идентификатор события
      *
@@ -122,7 +131,7 @@ public class Event {
      *
      * @since 1.0
      */
-    @Transient
+    @Column(name = "confirmed_requests", insertable = false, updatable = false)
     private int confirmedRequests;
     /**
      * Количество просмотров события
@@ -149,21 +158,21 @@ public class Event {
      *
      * @since 1.0
      */
-    @Column(name = "likes")
+    @Column(name = "likes", updatable = false)
     private int likes;
     /**
      * Количество дизлайков
      *
      * @since 1.0
      */
-    @Column(name = "dislikes")
+    @Column(name = "dislikes", updatable = false)
     private int dislikes;
     /**
      * Рейтинг события (на основе лайков/дизлайков)
      *
      * @since 1.0
      */
-    @Column(name = "rating")
+    @Column(name = "rating", updatable = false)
     private float rating;
 
     public Event(String annotation, String description, LocalDateTime eventDate, boolean paid,
@@ -0,0 +1,173 @@
+package ru.practicum.ewm.models;
+
+import lombok.Getter;
+import ru.practicum.ewm.errors.Error;
+import ru.practicum.ewm.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Класс, описывающий курсор постраничной выборки событий: значения ключа сортировки последнего события
+ * предыдущего набора. Следующий набор выбирается условием по ключу, а не пропуском строк, поэтому стоимость
+ * запроса не зависит от номера набора. Клиенту курсор передается в виде непрозрачной строки
+ *
+ * @since 1.1
+ */
+@Getter
+public class EventCursor {
+    /**
+     * Ключ сортировки, по которому строится курсор
+     *
+     * @since 1.1
+     */
+    public enum Key {
+        /**
+         * Дата начала события и идентификатор по убыванию
+         *
+         * @since 1.1
+         */
+        EVENT_DATE,
+        /**
+         * Рейтинг события и идентификатор по убыванию
+         *
+         * @since 1.1
+         */
+        RATING,
+        /**
+         * Идентификатор события по возрастанию
+         *
+         * @since 1.1
+         */
+        ID
+    }
+
+    /**
+     * Разделитель значений в строке курсора
+     *
+     * @since 1.1
+     */
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Ключ сортировки
+     *
+     * @since 1.1
+     */
+    private final Key key;
+
+    /**
+     * Дата начала последнего события (для ключа EVENT_DATE)
+     *
+     * @since 1.1
+     */
+    private final LocalDateTime eventDate;
+
+    /**
+     * Рейтинг последнего события (для ключа RATING)
+     *
+     * @since 1.1
+     */
+    private final float rating;
+
+    /**
+     * Идентификатор последнего события
+     *
+     * @since 1.1
+     */
+    private final int id;
+
+    private EventCursor(Key key, LocalDateTime eventDate, float rating, int id) {
+        this.key = key;
+        this.eventDate = eventDate;
+        this.rating = rating;
+        this.id = id;
+    }
+
+    /**
+     * Метод позволяет получить ключ курсора для способа сортировки событий
+     *
+     * @param sort способ сортировки {@link EventSortType}
+     * @return ключ курсора или null, если для сортировки курсор не поддерживается (RELEVANCE)
+     * @since 1.1
+     */
+    public static Key keyFor(String sort) {
+        if (EventSortType.EVENT_DATE.toString().equals(sort)) {
+            return Key.EVENT_DATE;
+        } else if (EventSortType.RATING.toString().equals(sort)) {
+            return Key.RATING;
+        } else if (EventSortType.RELEVANCE.toString().equals(sort)) {
+            return null;
+        }
+        return Key.ID;
+    }
+
+    /**
+     * Метод позволяет создать курсор, указывающий на переданное событие
+     *
+     * @param event последнее событие набора
+     * @param key   ключ сортировки
+     * @return курсор
+     * @since 1.1
+     */
+    public static EventCursor after(Event event, Key key) {
+        return new EventCursor(key, event.getEventDate(), event.getRating(), event.getId());
+    }
+
+    /**
+     * Метод позволяет преобразовать курсор в непрозрачную строку для передачи клиенту
+     *
+     * @return строка курсора
+     * @since 1.1
+     */
+    public String encode() {
+        String value;
+        switch (key) {
+            case EVENT_DATE:
+                value = eventDate.toString();
+                break;
+            case RATING:
+                value = Float.toString(rating);
+                break;
+            default:
+                value = "";
+        }
+        String cursor = key + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Метод позволяет восстановить курсор из строки, полученной от клиента
+     *
+     * @param cursor строка курсора
+     * @param key    ключ сортировки текущего запроса
+     * @return курсор
+     * @throws BadRequestException если строка не является курсором или курсор получен для другой сортировки
+     * @since 1.1
+     */
+    public static EventCursor decode(String cursor, Key key) {
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            if (key != null && values.length == 3 && key.toString().equals(values[0])) {
+                int id = Integer.parseInt(values[2]);
+                switch (key) {
+                    case EVENT_DATE:
+                        return new EventCursor(key, LocalDateTime.parse(values[1]), 0, id);
+                    case RATING:
+                        return new EventCursor(key, null, Float.parseFloat(values[1]), id);
+                    default:
+                        return new EventCursor(key, null, 0, id);
+                }
+            }
+        } catch (RuntimeException e) {
+            // некорректная строка курсора обрабатывается ниже
+        }
+        throw new BadRequestException(List.of(
+                new Error("cursor", "неверное значение " + cursor).toString()),
+                "Невозможно получить набор событий.",
+                "Курсор не подходит для запрошенной сортировки событий.");
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.ewm.models;
+
+/**
+ * Интерфейс проекции, описывающий изменение количества лайков/дизлайков и рейтинга события после голосования
+ *
+ * @since 1.1
+ */
+public interface EventRatingChange {
+    /**
+     * Метод позволяет получить количество лайков события после изменения
+     *
+     * @return количество лайков
+     * @since 1.1
+     */
+    Integer getLikes();
+
+    /**
+     * Метод позволяет получить количество дизлайков события после изменения
+     *
+     * @return количество дизлайков
+     * @since 1.1
+     */
+    Integer getDislikes();
+
+    /**
+     * Метод позволяет получить рейтинг события после изменения
+     *
+     * @return рейтинг события
+     * @since 1.1
+     */
+    Float getRating();
+
+    /**
+     * Метод позволяет получить рейтинг события до изменения
+     *
+     * @return рейтинг события
+     * @since 1.1
+     */
+    Float getOldRating();
+
+    /**
+     * Метод позволяет узнать, были ли у события лайки или дизлайки до изменения
+     *
+     * @return true - если у события был хотя бы один лайк или дизлайк
+     * @since 1.1
+     */
+    Boolean getOldRated();
+}
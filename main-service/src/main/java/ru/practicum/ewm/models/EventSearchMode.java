@@ -0,0 +1,28 @@
+package ru.practicum.ewm.models;
+
+/**
+ * Класс, описывающий способ поиска событий по тексту
+ *
+ * @since 1.1
+ */
+public enum EventSearchMode {
+    /**
+     * Поиск подстроки в аннотации и подробном описании события
+     *
+     * @since 1.1
+     */
+    LIKE,
+    /**
+     * Полнотекстовый поиск PostgreSQL по названию, аннотации и подробному описанию события
+     *
+     * @since 1.1
+     */
+    FULL_TEXT,
+    /**
+     * Поиск подстроки в аннотации и подробном описании события по индексам триграмм PostgreSQL (pg_trgm) с
+     * сортировкой по схожести
+     *
+     * @since 1.1
+     */
+    TRIGRAM
+}
@@ -0,0 +1,40 @@
+package ru.practicum.ewm.models;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Класс, описывающий поисковый вектор события (название, аннотация и подробное описание) как хранимую сущность,
+ * доступную только для чтения. Столбец поддерживается триггером в PostgreSQL и используется только для
+ * полнотекстового поиска, поэтому не загружается вместе с {@link Event}
+ *
+ * @since 1.1
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "events")
+public class EventSearchVector {
+    /**
+     * Идентификатор события
+     *
+     * @since 1.1
+     */
+    @Id
+    @Column(name = "id")
+    private int id;
+    /**
+     * Поисковый вектор события
+     *
+     * @since 1.1
+     */
+    @Column(name = "search_vector")
+    private String searchVector;
+}
@@ -23,5 +23,11 @@ public enum EventSortType {
      *
      * @since 1.1
      */
-    RATING
+    RATING,
+    /**
+     * Сортировка по релевантности тексту поиска (только для полнотекстового поиска и поиска по триграммам)
+     *
+     * @since 1.1
+     */
+    RELEVANCE
 }
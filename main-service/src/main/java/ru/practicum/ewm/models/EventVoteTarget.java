@@ -0,0 +1,52 @@
+package ru.practicum.ewm.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интерфейс проекции, описывающий данные события и пользователя, необходимые для проверки возможности поставить
+ * лайк/дизлайк
+ *
+ * @since 1.1
+ */
+public interface EventVoteTarget {
+    /**
+     * Метод позволяет получить идентификатор организатора события
+     *
+     * @return идентификатор организатора события
+     * @since 1.1
+     */
+    Integer getInitiatorId();
+
+    /**
+     * Метод позволяет получить статус события
+     *
+     * @return статус события
+     * @since 1.1
+     */
+    EventState getState();
+
+    /**
+     * Метод позволяет получить дату и время начала события
+     *
+     * @return дата и время начала события
+     * @since 1.1
+     */
+    LocalDateTime getEventDate();
+
+    /**
+     * Метод позволяет получить количество пользователей с переданным идентификатором (0 - если пользователь не
+     * найден)
+     *
+     * @return количество пользователей
+     * @since 1.1
+     */
+    Long getUsers();
+
+    /**
+     * Метод позволяет получить количество подтвержденных запросов пользователя на участие в событии
+     *
+     * @return количество подтвержденных запросов
+     * @since 1.1
+     */
+    Long getParticipations();
+}
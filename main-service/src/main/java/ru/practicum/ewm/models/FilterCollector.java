@@ -67,4 +67,10 @@ public class FilterCollector {
      * @since 1.1
      */
     private int size;
+    /**
+     * Курсор предыдущего набора событий (если передан, from не используется)
+     *
+     * @since 1.1
+     */
+    private String cursor;
 }
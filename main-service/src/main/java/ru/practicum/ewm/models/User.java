@@ -42,7 +42,22 @@ public class User {
      *
      * @since 1.0
      */
+    @Column(name = "rating", insertable = false, updatable = false)
     private float rating;
+    /**
+     * Сумма рейтингов оцененных событий пользователя
+     *
+     * @since 1.1
+     */
+    @Column(name = "rating_sum", insertable = false, updatable = false)
+    private double ratingSum;
+    /**
+     * Количество оцененных событий пользователя (с хотя бы одним лайком или дизлайком)
+     *
+     * @since 1.1
+     */
+    @Column(name = "rated_events", insertable = false, updatable = false)
+    private int ratedEvents;
 
     public User(String email, String name) {
         this.email = email;
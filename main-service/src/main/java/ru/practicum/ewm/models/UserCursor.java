@@ -0,0 +1,92 @@
+package ru.practicum.ewm.models;
+
+import lombok.Getter;
+import ru.practicum.ewm.errors.Error;
+import ru.practicum.ewm.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Класс, описывающий курсор рейтинга организаторов событий: рейтинг и идентификатор последнего пользователя
+ * предыдущего набора. Значения сохраняются в самом курсоре, поэтому изменение рейтинга пользователя между
+ * запросами не сдвигает границу следующего набора. Клиенту курсор передается в виде непрозрачной строки
+ *
+ * @see EventCursor
+ * @since 1.1
+ */
+@Getter
+public class UserCursor {
+    /**
+     * Разделитель значений в строке курсора
+     *
+     * @since 1.1
+     */
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Рейтинг последнего пользователя
+     *
+     * @since 1.1
+     */
+    private final float rating;
+
+    /**
+     * Идентификатор последнего пользователя
+     *
+     * @since 1.1
+     */
+    private final int id;
+
+    private UserCursor(float rating, int id) {
+        this.rating = rating;
+        this.id = id;
+    }
+
+    /**
+     * Метод позволяет создать курсор, указывающий на переданного пользователя
+     *
+     * @param user последний пользователь набора
+     * @return курсор
+     * @since 1.1
+     */
+    public static UserCursor after(User user) {
+        return new UserCursor(user.getRating(), user.getId());
+    }
+
+    /**
+     * Метод позволяет преобразовать курсор в непрозрачную строку для передачи клиенту
+     *
+     * @return строка курсора
+     * @since 1.1
+     */
+    public String encode() {
+        String cursor = rating + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Метод позволяет восстановить курсор из строки, полученной от клиента
+     *
+     * @param cursor строка курсора
+     * @return курсор
+     * @throws BadRequestException если строка не является курсором
+     * @since 1.1
+     */
+    public static UserCursor decode(String cursor) {
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+            if (values.length == 2) {
+                return new UserCursor(Float.parseFloat(values[0]), Integer.parseInt(values[1]));
+            }
+        } catch (RuntimeException e) {
+            // некорректная строка курсора обрабатывается ниже
+        }
+        throw new BadRequestException(List.of(
+                new Error("cursor", "неверное значение " + cursor).toString()),
+                "Невозможно получить рейтинг пользователей.",
+                "Некорректный курсор рейтинга пользователей.");
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.ewm.repositories;
 
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewm.models.Event;
+import ru.practicum.ewm.models.EventCursor;
 import ru.practicum.ewm.models.EventState;
 import ru.practicum.ewm.models.FilterCollector;
 
@@ -18,10 +19,11 @@ public interface EventCustomRepository {
      * Метод позволяет получить список событий, подходящих под переданные условия
      *
      * @param filterCollector объект, описывающий условия фильтрации
+     * @param cursor          курсор предыдущего набора (если передан, from не используется)
      * @return список событий, подходящих под переданные условия
      * @since 1.0
      */
-    List<Event> getAllEvents(FilterCollector filterCollector);
+    List<Event> getAllEvents(FilterCollector filterCollector, EventCursor cursor);
 
     /**
      * Метод позволяет найти события, подходящие под переданные условия
@@ -33,9 +35,10 @@ public interface EventCustomRepository {
      * @param rangeEnd   дата и время, не позже которых должно произойти событие
      * @param from       количество событий, которые нужно пропустить для формирования текущего набора(по умолчанию 0)
      * @param size       количество событий в наборе(по умолчанию 10)
+     * @param cursor     курсор предыдущего набора (если передан, from не используется)
      * @return список событий, подходящих под переданные условия
      * @since 1.0
      */
     List<Event> searchEventsToAdmin(Integer[] users, EventState[] states, Integer[] categories, String rangeStart,
-                                    String rangeEnd, int from, int size);
+                                    String rangeEnd, int from, int size, EventCursor cursor);
 }
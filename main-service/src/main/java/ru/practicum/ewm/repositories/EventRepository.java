@@ -1,13 +1,24 @@
 package ru.practicum.ewm.repositories;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.models.Category;
+import ru.practicum.ewm.models.ConfirmedRequestsCount;
 import ru.practicum.ewm.models.Event;
+import ru.practicum.ewm.models.EventRatingChange;
+import ru.practicum.ewm.models.EventState;
+import ru.practicum.ewm.models.EventVoteTarget;
+import ru.practicum.ewm.models.RequestState;
 import ru.practicum.ewm.models.User;
 
+import javax.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,11 +39,41 @@ public interface EventRepository extends JpaRepository<Event, Integer>, EventCus
      * @return страница со списком событий пользователя
      * @since 1.0
      */
+    @EntityGraph(Event.CATEGORY_AND_INITIATOR_GRAPH)
     @Query(value = "select e " +
             "from Event e " +
             "where e.initiator = ?1")
     List<Event> findEventsByInitiator(User initiator, Pageable page);
 
+    /**
+     * Метод позволяет получить страницу событий по статусу
+     *
+     * @param state статус события
+     * @param page  параметры страницы
+     * @return страница событий
+     * @since 1.1
+     */
+    @EntityGraph(Event.CATEGORY_AND_INITIATOR_GRAPH)
+    Slice<Event> findEventsByState(EventState state, Pageable page);
+
+    /**
+     * Метод позволяет получить события пользователя, идентификатор которых больше переданного, в порядке
+     * возрастания идентификатора
+     *
+     * @param initiator организатор события
+     * @param afterId   идентификатор последнего события предыдущего набора
+     * @param page      параметры выборки (используется только размер набора)
+     * @return список событий пользователя
+     * @since 1.1
+     */
+    @EntityGraph(Event.CATEGORY_AND_INITIATOR_GRAPH)
+    @Query(value = "select e " +
+            "from Event e " +
+            "where e.initiator = ?1 " +
+            "and e.id > ?2 " +
+            "order by e.id")
+    List<Event> findEventsByInitiatorAfter(User initiator, int afterId, Pageable page);
+
     /**
      * Метод позволяет получить событие по идентификатору и организатору
      *
@@ -54,4 +95,232 @@ public interface EventRepository extends JpaRepository<Event, Integer>, EventCus
             "from Event " +
             "where category = ?1")
     List<Integer> findEventsByCategory(Category category);
+
+    /**
+     * Метод позволяет получить событие по идентификатору и организатору, заблокировав его для изменения до конца
+     * транзакции
+     *
+     * @param id        идентификатор события
+     * @param initiator организатор события
+     * @return событие или null (если такое событие не найдено)
+     * @since 1.1
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select e " +
+            "from Event e " +
+            "where e.id = ?1 " +
+            "and e.initiator = ?2")
+    Optional<Event> findEventByIdAndInitiatorForUpdate(int id, User initiator);
+
+    /**
+     * Метод позволяет атомарно занять места участников в событии: количество подтвержденных запросов увеличивается,
+     * только если все места помещаются в лимит участников
+     *
+     * @param eventId идентификатор события
+     * @param count   количество занимаемых мест
+     * @return количество обновленных событий (0, если лимит участников исчерпан)
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update Event e " +
+            "set e.confirmedRequests = e.confirmedRequests + ?2 " +
+            "where e.id = ?1 " +
+            "and (e.participantLimit = 0 or e.confirmedRequests + ?2 <= e.participantLimit)")
+    int reserveParticipantSlots(int eventId, int count);
+
+    /**
+     * Метод позволяет атомарно освободить места участников в событии и снова сделать событие доступным для участия
+     *
+     * @param eventId идентификатор события
+     * @param count   количество освобождаемых мест
+     * @return количество обновленных событий
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update Event e " +
+            "set e.confirmedRequests = e.confirmedRequests - ?2, e.isAvailable = true " +
+            "where e.id = ?1")
+    int releaseParticipantSlots(int eventId, int count);
+
+    /**
+     * Метод позволяет отметить событие недоступным для участия, если лимит участников исчерпан
+     *
+     * @param eventId идентификатор события
+     * @return количество обновленных событий (0, если лимит участников не исчерпан)
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update Event e " +
+            "set e.isAvailable = false " +
+            "where e.id = ?1 " +
+            "and e.participantLimit > 0 " +
+            "and e.confirmedRequests >= e.participantLimit " +
+            "and e.isAvailable = true")
+    int markUnavailableIfFull(int eventId);
+
+    /**
+     * Метод позволяет получить хранимое количество подтвержденных запросов на участие для страницы событий,
+     * упорядоченных по идентификатору
+     *
+     * @param afterId идентификатор события, после которого начинается страница
+     * @param page    размер страницы
+     * @return хранимое количество подтвержденных запросов по каждому событию страницы
+     * @since 1.1
+     */
+    @Query(value = "select e.id as eventId, e.confirmedRequests as confirmedRequests " +
+            "from Event e " +
+            "where e.id > ?1 " +
+            "order by e.id")
+    List<ConfirmedRequestsCount> getStoredConfirmedRequests(int afterId, Pageable page);
+
+    /**
+     * Метод позволяет заблокировать строку события до конца транзакции, чтобы параллельные изменения количества
+     * подтвержденных запросов дождались ее завершения
+     *
+     * @param eventId идентификатор события
+     * @return идентификатор заблокированного события или null (если такое событие не найдено)
+     * @since 1.1
+     */
+    @Query(value = "select id " +
+            "from events " +
+            "where id = ?1 " +
+            "for update", nativeQuery = true)
+    Optional<Integer> lockEventById(int eventId);
+
+    /**
+     * Метод позволяет записать количество подтвержденных запросов на участие в событии, если оно отличается от
+     * хранимого
+     *
+     * @param eventId           идентификатор события
+     * @param confirmedRequests количество подтвержденных запросов
+     * @return количество обновленных событий (0, если количество не изменилось)
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update Event e " +
+            "set e.confirmedRequests = ?2 " +
+            "where e.id = ?1 " +
+            "and e.confirmedRequests <> ?2")
+    int setConfirmedRequests(int eventId, int confirmedRequests);
+
+    /**
+     * Метод позволяет пересчитать количество лайков и дизлайков всех событий по таблице лайков
+     *
+     * @return количество обновленных событий
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update events " +
+            "set likes = (select count(l.id) from likes l where l.event_id = events.id and l.is_like = true), " +
+            "dislikes = (select count(l.id) from likes l where l.event_id = events.id and l.is_like = false)",
+            nativeQuery = true)
+    int recalculateLikes();
+
+    /**
+     * Метод позволяет пересчитать рейтинг всех событий по количеству лайков и дизлайков
+     *
+     * @return количество обновленных событий
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update events " +
+            "set rating = case when likes > 0 and dislikes = 0 then 5 " +
+            "when likes = 0 or likes = dislikes then 0 " +
+            "else cast(likes as real) / dislikes end", nativeQuery = true)
+    int recalculateRatings();
+
+    /**
+     * Метод позволяет атомарно изменить количество лайков и дизлайков события и пересчитать его рейтинг
+     *
+     * @param eventId       идентификатор события
+     * @param likesDelta    изменение количества лайков
+     * @param dislikesDelta изменение количества дизлайков
+     * @return количество лайков/дизлайков и рейтинг события после изменения, а также рейтинг до изменения
+     * @since 1.1
+     */
+    @Transactional
+    @Query(value = "update events e " +
+            "set likes = e.likes + ?2, " +
+            "dislikes = e.dislikes + ?3, " +
+            "rating = case when e.likes + ?2 > 0 and e.dislikes + ?3 = 0 then 5 " +
+            "when e.likes + ?2 = 0 or e.likes + ?2 = e.dislikes + ?3 then 0 " +
+            "else cast(e.likes + ?2 as real) / (e.dislikes + ?3) end " +
+            "from (select id, likes, dislikes, rating from events where id = ?1 for update) old " +
+            "where e.id = old.id " +
+            "returning e.likes as \"likes\", e.dislikes as \"dislikes\", e.rating as \"rating\", " +
+            "old.rating as \"oldRating\", (old.likes > 0 or old.dislikes > 0) as \"oldRated\"",
+            nativeQuery = true)
+    EventRatingChange addVotes(int eventId, int likesDelta, int dislikesDelta);
+
+    /**
+     * Метод позволяет одним запросом получить данные события и пользователя, необходимые для проверки возможности
+     * поставить лайк/дизлайк, не загружая само событие
+     *
+     * @param eventId идентификатор события
+     * @param userId  идентификатор пользователя
+     * @param state   статус запроса на участие, подтверждающий участие пользователя в событии
+     * @return данные для проверки голоса (пусто, если событие не найдено)
+     * @since 1.1
+     */
+    @Query(value = "select e.initiator.id as initiatorId, e.state as state, e.eventDate as eventDate, " +
+            "(select count(u.id) from User u where u.id = ?2) as users, " +
+            "(select count(r.id) from Request r " +
+            "where r.event = e and r.requester.id = ?2 and r.state = ?3) as participations " +
+            "from Event e " +
+            "where e.id = ?1")
+    Optional<EventVoteTarget> getVoteTarget(int eventId, int userId, RequestState state);
+
+    /**
+     * Метод позволяет получить события в статусе с наибольшим рейтингом, идущие после переданной позиции
+     * (рейтинг и идентификатор) в порядке убывания рейтинга
+     *
+     * @param state       статус события
+     * @param afterRating рейтинг последнего события предыдущего набора
+     * @param afterId     идентификатор последнего события предыдущего набора
+     * @param page        параметры выборки (используется только размер набора)
+     * @return список событий
+     * @since 1.1
+     */
+    @EntityGraph(Event.CATEGORY_AND_INITIATOR_GRAPH)
+    @Query(value = "select e " +
+            "from Event e " +
+            "where e.state = ?1 " +
+            "and e.rating <= ?2 " +
+            "and (e.rating < ?2 or e.id < ?3) " +
+            "order by e.rating desc, e.id desc")
+    List<Event> getTopRatedEvents(EventState state, float afterRating, int afterId, Pageable page);
+
+    /**
+     * Метод позволяет получить события категории в статусе с наибольшим рейтингом, идущие после переданной
+     * позиции (рейтинг и идентификатор) в порядке убывания рейтинга
+     *
+     * @param categoryId  идентификатор категории
+     * @param state       статус события
+     * @param afterRating рейтинг последнего события предыдущего набора
+     * @param afterId     идентификатор последнего события предыдущего набора
+     * @param page        параметры выборки (используется только размер набора)
+     * @return список событий
+     * @since 1.1
+     */
+    @EntityGraph(Event.CATEGORY_AND_INITIATOR_GRAPH)
+    @Query(value = "select e " +
+            "from Event e " +
+            "where e.category.id = ?1 " +
+            "and e.state = ?2 " +
+            "and e.rating <= ?3 " +
+            "and (e.rating < ?3 or e.id < ?4) " +
+            "order by e.rating desc, e.id desc")
+    List<Event> getTopRatedEventsByCategory(int categoryId, EventState state, float afterRating, int afterId,
+                                            Pageable page);
+
+    /**
+     * Метод позволяет получить события по идентификаторам вместе с категориями и организаторами
+     *
+     * @param ids идентификаторы событий
+     * @return список событий
+     * @since 1.1
+     */
+    @Override
+    @EntityGraph(Event.CATEGORY_AND_INITIATOR_GRAPH)
+    List<Event> findAllById(Iterable<Integer> ids);
 }
@@ -2,7 +2,9 @@ package ru.practicum.ewm.repositories;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.models.Event;
 import ru.practicum.ewm.models.Like;
 import ru.practicum.ewm.models.User;
@@ -55,4 +57,45 @@ public interface LikeRepository extends JpaRepository<Like, Integer> {
      * @since 1.0
      */
     List<Like> findAllByEventAndIsLikeIsFalse(Event event, Pageable page);
+
+    /**
+     * Метод позволяет одним запросом поставить лайк/дизлайк событию или заменить им противоположную оценку
+     * пользователя
+     *
+     * @param userId  идентификатор пользователя
+     * @param eventId идентификатор события
+     * @param isLike  true - лайк, false - дизлайк
+     * @return true - если оценка добавлена впервые, false - если заменена противоположная оценка, и null, если
+     * пользователь уже поставил такую же оценку
+     * @since 1.1
+     */
+    @Transactional
+    @Query(value = "insert into likes as l (user_id, event_id, is_like) " +
+            "values (?1, ?2, ?3) " +
+            "on conflict (user_id, event_id) do update " +
+            "set is_like = excluded.is_like " +
+            "where l.is_like <> excluded.is_like " +
+            "returning (xmax = 0)", nativeQuery = true)
+    Boolean upsertVote(int userId, int eventId, boolean isLike);
+
+    /**
+     * Метод позволяет получить разделяемую блокировку оценок событий до конца текущей транзакции. Ее берут все
+     * транзакции, изменяющие лайки/дизлайки и рейтинги, поэтому они выполняются параллельно друг с другом, но не
+     * одновременно с пересчетом рейтингов
+     *
+     * @return количество полученных блокировок
+     * @since 1.1
+     */
+    @Query(value = "select count(*) from pg_advisory_xact_lock_shared(7301)", nativeQuery = true)
+    Long lockVotesShared();
+
+    /**
+     * Метод позволяет получить исключительную блокировку оценок событий до конца текущей транзакции. Блокировка
+     * дожидается завершения всех транзакций, изменяющих лайки/дизлайки и рейтинги, и не дает начаться новым
+     *
+     * @return количество полученных блокировок
+     * @since 1.1
+     */
+    @Query(value = "select count(*) from pg_advisory_xact_lock(7301)", nativeQuery = true)
+    Long lockVotesExclusive();
 }
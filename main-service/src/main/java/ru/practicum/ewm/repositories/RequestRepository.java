@@ -1,10 +1,12 @@
 package ru.practicum.ewm.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewm.models.*;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,6 +57,20 @@ public interface RequestRepository extends JpaRepository<Request, Integer> {
             "and state = 'CONFIRMED'", nativeQuery = true)
     Integer getConfirmedRequests(int event);
 
+    /**
+     * Метод позволяет одним запросом получить количество подтвержденных запросов на участие для набора событий
+     *
+     * @param events идентификаторы событий
+     * @return количество подтвержденных запросов по каждому событию, у которого они есть
+     * @since 1.1
+     */
+    @Query(value = "select event as eventId, count(id) as confirmedRequests " +
+            "from requests " +
+            "where event in ?1 " +
+            "and state = 'CONFIRMED' " +
+            "group by event", nativeQuery = true)
+    List<ConfirmedRequestsCount> getConfirmedRequests(Collection<Integer> events);
+
     /**
      * Метод позволяет получить запрос запрос пользователя на участие в событии по статусу запроса
      *
@@ -75,6 +91,36 @@ public interface RequestRepository extends JpaRepository<Request, Integer> {
      */
     List<Request> findRequestsByEventAndState(Event event, RequestState state);
 
+    /**
+     * Метод позволяет одним запросом изменить статус всех запросов на участие в событии, имеющих определенный статус
+     *
+     * @param event    событие
+     * @param state    текущий статус запросов на участие в событии
+     * @param newState новый статус запросов на участие в событии
+     * @return количество измененных запросов
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update Request r " +
+            "set r.state = ?3 " +
+            "where r.event = ?1 " +
+            "and r.state = ?2")
+    int updateRequestsStateByEventAndState(Event event, RequestState state, RequestState newState);
+
+    /**
+     * Метод позволяет одним запросом изменить статус запросов на участие в событии по идентификаторам
+     *
+     * @param ids   идентификаторы запросов на участие в событии
+     * @param state новый статус запросов на участие в событии
+     * @return количество измененных запросов
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update Request r " +
+            "set r.state = ?2 " +
+            "where r.id in ?1")
+    int updateRequestsState(Collection<Integer> ids, RequestState state);
+
     /**
      * Метод позволяет получить список запросов на участие в событиях определенного пользователя
      *
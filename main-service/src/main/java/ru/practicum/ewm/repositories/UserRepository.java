@@ -1,6 +1,7 @@
 package ru.practicum.ewm.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewm.models.User;
@@ -25,4 +26,58 @@ public interface UserRepository extends JpaRepository<User, Integer> {
             "from User u " +
             "where u.id in ?1")
     List<User> getAllUsers(Integer[] ids);
+
+    /**
+     * Метод позволяет атомарно изменить сумму рейтингов и количество оцененных событий пользователя и пересчитать
+     * его рейтинг как среднее значение рейтинга оцененных событий
+     *
+     * @param userId           идентификатор пользователя
+     * @param ratingDelta      изменение суммы рейтингов событий пользователя
+     * @param ratedEventsDelta изменение количества оцененных событий пользователя
+     * @return количество обновленных пользователей
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update users " +
+            "set rating_sum = rating_sum + ?2, " +
+            "rated_events = rated_events + ?3, " +
+            "rating = case when rated_events + ?3 = 0 then 0 " +
+            "else (rating_sum + ?2) / (rated_events + ?3) end " +
+            "where id = ?1", nativeQuery = true)
+    int addEventRating(int userId, double ratingDelta, int ratedEventsDelta);
+
+    /**
+     * Метод позволяет пересчитать сумму рейтингов, количество оцененных событий и рейтинг всех пользователей по
+     * рейтингу их событий
+     *
+     * @return количество обновленных пользователей
+     * @since 1.1
+     */
+    @Modifying
+    @Query(value = "update users " +
+            "set rating_sum = (select coalesce(sum(e.rating), 0) from events e " +
+            "where e.initiator = users.id and (e.likes > 0 or e.dislikes > 0)), " +
+            "rated_events = (select count(e.id) from events e " +
+            "where e.initiator = users.id and (e.likes > 0 or e.dislikes > 0)), " +
+            "rating = coalesce((select avg(e.rating) from events e " +
+            "where e.initiator = users.id and (e.likes > 0 or e.dislikes > 0)), 0)", nativeQuery = true)
+    int recalculateRatings();
+
+    /**
+     * Метод позволяет получить пользователей с наибольшим рейтингом среди организаторов оцененных событий, идущих
+     * после переданной позиции (рейтинг и идентификатор) в порядке убывания рейтинга
+     *
+     * @param afterRating рейтинг последнего пользователя предыдущего набора
+     * @param afterId     идентификатор последнего пользователя предыдущего набора
+     * @param size        количество пользователей в наборе
+     * @return список пользователей
+     * @since 1.1
+     */
+    @Query(value = "select * " +
+            "from users " +
+            "where rated_events > 0 " +
+            "and (rating, id) < (?1, ?2) " +
+            "order by rating desc, id desc " +
+            "limit ?3", nativeQuery = true)
+    List<User> getTopRatedUsers(float afterRating, int afterId, int size);
 }
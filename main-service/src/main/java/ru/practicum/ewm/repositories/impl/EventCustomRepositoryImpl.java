@@ -1,9 +1,13 @@
 package ru.practicum.ewm.repositories.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.mappers.EventMapper;
 import ru.practicum.ewm.models.Event;
+import ru.practicum.ewm.models.EventCursor;
+import ru.practicum.ewm.models.EventSearchMode;
+import ru.practicum.ewm.models.EventSearchVector;
 import ru.practicum.ewm.models.EventSortType;
 import ru.practicum.ewm.models.EventState;
 import ru.practicum.ewm.models.FilterCollector;
@@ -13,6 +17,8 @@ import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.time.LocalDateTime;
@@ -33,13 +39,24 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
      */
     private final EntityManager entityManager;
 
+    /**
+     * Способ поиска событий по тексту
+     *
+     * @since 1.1
+     */
+    private final EventSearchMode searchMode;
+
     @Autowired
-    public EventCustomRepositoryImpl(EntityManager entityManager) {
+    public EventCustomRepositoryImpl(EntityManager entityManager,
+                                     @Value("${events.search.mode:LIKE}") EventSearchMode searchMode) {
         this.entityManager = entityManager;
+        this.searchMode = searchMode;
     }
 
     /**
-     * Метод позволяет получить список событий, подходящих под переданные условия
+     * Метод позволяет получить список событий, подходящих под переданные условия. В режиме полнотекстового поиска
+     * текст ищется по поисковому вектору события, а в режиме поиска по триграммам - как подстрока, но с
+     * использованием GIN индексов по триграммам
      *
      * @param text          текст для поиска в содержимом аннотации и подробном описании события
      * @param categories    список идентификаторов категорий, в которых будет вестись поиск
@@ -47,25 +64,40 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
      * @param rangeStart    дата и время, не раньше которых должно произойти событие
      * @param rangeEnd      дата и время, не позже которых должно произойти событие
      * @param onlyAvailable дата и время не позже которых должно произойти событие (по умолчанию false)
-     * @param sort          Вариант сортировки: по дате события (EVENT_DATE) или по количеству просмотров (VIEWS)
+     * @param sort          Вариант сортировки: по дате события (EVENT_DATE), по количеству просмотров (VIEWS), по
+     *                      рейтингу (RATING) или по релевантности (RELEVANCE)
      * @param from          количество событий, которые нужно пропустить для формирования текущего набора (по умолчанию 0)
      * @param size          количество событий в наборе (по умолчанию 10)
+     * @param cursor        курсор предыдущего набора (если передан, from не используется)
      * @return список событий, подходящих под переданные условия
      * @since 1.0
      */
     @Override
-    public List<Event> getAllEvents(FilterCollector filterCollector) {
+    public List<Event> getAllEvents(FilterCollector filterCollector, EventCursor cursor) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Event> query = cb.createQuery(Event.class);
         Root<Event> eventRoot = query.from(Event.class);
         List<Predicate> textPredicate = new ArrayList<>();
         List<Predicate> filterPredicates = new ArrayList<>();
+        Expression<Float> relevance = null;
         if (filterCollector.getText() != null && !filterCollector.getText().isEmpty()
+                && !filterCollector.getText().isBlank() && searchMode == EventSearchMode.FULL_TEXT) {
+            Root<EventSearchVector> searchRoot = query.from(EventSearchVector.class);
+            Expression<String> text = cb.literal(filterCollector.getText());
+            filterPredicates.add(cb.equal(searchRoot.get("id"), eventRoot.get("id")));
+            filterPredicates.add(cb.isTrue(cb.function("fts_match", Boolean.class,
+                    searchRoot.get("searchVector"), text)));
+            relevance = cb.function("fts_rank", Float.class, searchRoot.get("searchVector"), text);
+        } else if (filterCollector.getText() != null && !filterCollector.getText().isEmpty()
                 && !filterCollector.getText().isBlank()) {
             textPredicate.add(cb.like(cb.lower(eventRoot.get("annotation")), "%" +
                     filterCollector.getText().toLowerCase() + "%"));
             textPredicate.add(cb.like(cb.lower(eventRoot.get("description")), "%" +
                     filterCollector.getText().toLowerCase() + "%"));
+            if (searchMode == EventSearchMode.TRIGRAM) {
+                relevance = cb.function("trgm_similarity", Float.class, cb.lower(eventRoot.get("annotation")),
+                        cb.lower(eventRoot.get("description")), cb.literal(filterCollector.getText().toLowerCase()));
+            }
         }
         if (filterCollector.getCategories() != null && filterCollector.getCategories().length != 0) {
             filterPredicates.add(cb.isTrue(eventRoot.get("category").in(filterCollector.getCategories())));
@@ -81,18 +113,29 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
         }
         filterPredicates.add(cb.equal(eventRoot.get("paid"), filterCollector.getPaid()));
         if (filterCollector.isOnlyAvailable()) {
-            filterPredicates.add(cb.equal(eventRoot.get("isAvailable"), true));
+            filterPredicates.add(cb.or(cb.equal(eventRoot.get("participantLimit"), 0),
+                    cb.lessThan(eventRoot.get("confirmedRequests"), eventRoot.get("participantLimit"))));
+        }
+        if (!textPredicate.isEmpty()) {
+            filterPredicates.add(cb.or(textPredicate.toArray(new Predicate[]{})));
         }
-        query.select(eventRoot).where(cb.or(textPredicate.toArray((new Predicate[]{}))),
-                cb.and(filterPredicates.toArray(new Predicate[]{})));
+        if (cursor != null) {
+            filterPredicates.add(afterCursor(cb, eventRoot, cursor));
+        }
+        query.select(eventRoot).where(cb.and(filterPredicates.toArray(new Predicate[]{})));
         if (EventSortType.EVENT_DATE.toString().equals(filterCollector.getSort())) {
-            query.orderBy(cb.desc(eventRoot.get("eventDate")));
+            query.orderBy(cb.desc(eventRoot.get("eventDate")), cb.desc(eventRoot.get("id")));
+        } else if (EventSortType.RATING.toString().equals(filterCollector.getSort())) {
+            query.orderBy(cb.desc(eventRoot.get("rating")), cb.desc(eventRoot.get("id")));
+        } else if (EventSortType.RELEVANCE.toString().equals(filterCollector.getSort()) && relevance != null) {
+            query.orderBy(cb.desc(relevance), cb.desc(eventRoot.get("id")));
+        } else {
+            query.orderBy(cb.asc(eventRoot.get("id")));
         }
-        if (EventSortType.RATING.toString().equals(filterCollector.getSort())) {
-            query.orderBy(cb.desc(eventRoot.get("rating")));
+        TypedQuery<Event> typedQuery = withCategoryAndInitiator(entityManager.createQuery(query));
+        if (cursor == null) {
+            typedQuery.setFirstResult(filterCollector.getFrom());
         }
-        TypedQuery<Event> typedQuery = entityManager.createQuery(query);
-        typedQuery.setFirstResult(filterCollector.getFrom());
         typedQuery.setMaxResults(filterCollector.getSize());
         return typedQuery.getResultList();
     }
@@ -107,12 +150,14 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
      * @param rangeEnd   дата и время, не позже которых должно произойти событие
      * @param from       количество событий, которые нужно пропустить для формирования текущего набора(по умолчанию 0)
      * @param size       количество событий в наборе(по умолчанию 10)
+     * @param cursor     курсор предыдущего набора (если передан, from не используется)
      * @return список событий, подходящих под переданные условия
      * @since 1.0
      */
     @Override
     public List<Event> searchEventsToAdmin(Integer[] users, EventState[] states, Integer[] categories,
-                                           String rangeStart, String rangeEnd, int from, int size) {
+                                           String rangeStart, String rangeEnd, int from, int size,
+                                           EventCursor cursor) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Event> query = cb.createQuery(Event.class);
         Root<Event> eventRoot = query.from(Event.class);
@@ -134,10 +179,55 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
         } else {
             filterPredicates.add(cb.greaterThan(eventRoot.get("eventDate"), cb.currentTimestamp()));
         }
+        if (cursor != null) {
+            filterPredicates.add(afterCursor(cb, eventRoot, cursor));
+        }
         query.select(eventRoot).where(cb.and(filterPredicates.toArray(new Predicate[]{})));
-        TypedQuery<Event> typedQuery = entityManager.createQuery(query);
-        typedQuery.setFirstResult(from);
+        query.orderBy(cb.asc(eventRoot.get("id")));
+        TypedQuery<Event> typedQuery = withCategoryAndInitiator(entityManager.createQuery(query));
+        if (cursor == null) {
+            typedQuery.setFirstResult(from);
+        }
         typedQuery.setMaxResults(size);
         return typedQuery.getResultList();
     }
+
+    /**
+     * Метод позволяет загружать категории и организаторов событий в том же запросе, что и события, а не отдельным
+     * запросом на каждую категорию и каждого организатора
+     *
+     * @param typedQuery запрос событий
+     * @return запрос событий с графом сущности {@link Event#CATEGORY_AND_INITIATOR_GRAPH}
+     * @since 1.1
+     */
+    private TypedQuery<Event> withCategoryAndInitiator(TypedQuery<Event> typedQuery) {
+        return typedQuery.setHint("javax.persistence.loadgraph",
+                entityManager.getEntityGraph(Event.CATEGORY_AND_INITIATOR_GRAPH));
+    }
+
+    /**
+     * Метод позволяет построить условие выборки событий, идущих после курсора в порядке его ключа сортировки.
+     * Условие по первому полю ключа вынесено отдельно, чтобы по нему можно было начать поиск в индексе
+     *
+     * @param cb        построитель запросов
+     * @param eventRoot корень запроса
+     * @param cursor    курсор предыдущего набора
+     * @return условие выборки
+     * @since 1.1
+     */
+    private Predicate afterCursor(CriteriaBuilder cb, Root<Event> eventRoot, EventCursor cursor) {
+        Path<Integer> id = eventRoot.get("id");
+        switch (cursor.getKey()) {
+            case EVENT_DATE:
+                Path<LocalDateTime> eventDate = eventRoot.get("eventDate");
+                return cb.and(cb.lessThanOrEqualTo(eventDate, cursor.getEventDate()),
+                        cb.or(cb.lessThan(eventDate, cursor.getEventDate()), cb.lessThan(id, cursor.getId())));
+            case RATING:
+                Path<Float> rating = eventRoot.get("rating");
+                return cb.and(cb.lessThanOrEqualTo(rating, cursor.getRating()),
+                        cb.or(cb.lessThan(rating, cursor.getRating()), cb.lessThan(id, cursor.getId())));
+            default:
+                return cb.greaterThan(id, cursor.getId());
+        }
+    }
 }
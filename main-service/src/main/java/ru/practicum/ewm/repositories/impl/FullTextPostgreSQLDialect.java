@@ -0,0 +1,30 @@
+package ru.practicum.ewm.repositories.impl;
+
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Диалект PostgreSQL, добавляющий функции полнотекстового поиска и поиска по триграммам для использования в
+ * запросах JPA
+ *
+ * @since 1.1
+ */
+public class FullTextPostgreSQLDialect extends PostgreSQL10Dialect {
+    /**
+     * Конфигурация полнотекстового поиска, с которой строится поисковый вектор событий
+     *
+     * @since 1.1
+     */
+    public static final String TEXT_SEARCH_CONFIG = "'pg_catalog.russian'";
+
+    public FullTextPostgreSQLDialect() {
+        super();
+        registerFunction("fts_match", new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+                "(?1 @@ plainto_tsquery(" + TEXT_SEARCH_CONFIG + ", ?2))"));
+        registerFunction("fts_rank", new SQLFunctionTemplate(StandardBasicTypes.FLOAT,
+                "ts_rank(?1, plainto_tsquery(" + TEXT_SEARCH_CONFIG + ", ?2))"));
+        registerFunction("trgm_similarity", new SQLFunctionTemplate(StandardBasicTypes.FLOAT,
+                "greatest(similarity(?1, ?3), similarity(?2, ?3))"));
+    }
+}
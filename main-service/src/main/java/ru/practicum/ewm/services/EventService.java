@@ -3,6 +3,7 @@ package ru.practicum.ewm.services;
 import ru.practicum.ewm.controllers.apis.admins.dtos.events.AdminUpdateEventRequestDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.events.NewEventDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.events.UpdateEventRequestDto;
+import ru.practicum.ewm.models.CursorPage;
 import ru.practicum.ewm.models.Event;
 import ru.practicum.ewm.models.FilterCollector;
 import ru.practicum.ewm.models.User;
@@ -26,10 +27,11 @@ public interface EventService {
      * Метод позволяет получить коллекцию Dto с кратким описанием событий, подходящих под заданные условия
      *
      * @param filterCollector объект, описывающий условия фильтрации
-     * @return коллекция Dto с кратким описанием событий
+     * @return коллекция Dto с кратким описанием событий и курсор следующего набора (null, если набор последний
+     * или найден по индексу опубликованных событий)
      * @since 1.0
      */
-    Collection<EventShortDto> getAllEvents(FilterCollector filterCollector, HttpServletRequest request);
+    CursorPage<EventShortDto> getAllEvents(FilterCollector filterCollector, HttpServletRequest request);
 
     /**
      * Метод позволяет получить Dto события с подробной информацией о нем по идентификатору
@@ -69,11 +71,13 @@ public interface EventService {
      * @param rangeEnd   дата и время, не позже которых должно произойти событие
      * @param from       количество событий, которые нужно пропустить для формирования текущего набора(по умолчанию 0)
      * @param size       количество событий в наборе(по умолчанию 10)
-     * @return полная информация обо всех событиях подходящих под переданные условия
+     * @param cursor     курсор предыдущего набора (если передан, from не используется)
+     * @return полная информация обо всех событиях подходящих под переданные условия и курсор следующего набора
      * @since 1.0
      */
-    Collection<EventFullDto> searchEventsToAdmin(Integer[] users, String[] states, Integer[] categories,
-                                                 String rangeStart, String rangeEnd, int from, int size);
+    CursorPage<EventFullDto> searchEventsToAdmin(Integer[] users, String[] states, Integer[] categories,
+                                                 String rangeStart, String rangeEnd, int from, int size,
+                                                 String cursor);
 
     /**
      * Метод позволяет обновить событие по идентификатору
@@ -110,10 +114,12 @@ public interface EventService {
      * @param userId идентификатор пользователя {@link ru.practicum.ewm.models.User}
      * @param from   количество элементов, которые нужно пропустить для формирования текущего набора(по умолчанию 0)
      * @param size   количество элементов в наборе(по умолчанию 10)
-     * @return краткая информация о событиях пользователя, подходящих под заданные условия
+     * @param cursor курсор предыдущего набора (если передан, from не используется)
+     * @return краткая информация о событиях пользователя, подходящих под заданные условия, и курсор следующего
+     * набора
      * @since 1.0
      */
-    Collection<EventShortDto> getUserEvents(int userId, int from, int size);
+    CursorPage<EventShortDto> getUserEvents(int userId, int from, int size, String cursor);
 
     /**
      * Метод позволяет пользователю обновить своё событие
@@ -145,4 +151,25 @@ public interface EventService {
     EventFullDto cancelEventByUser(int userId, int eventId);
 
     List<Event> findEventsByInitiator(User initiator, int from, int size);
+
+    /**
+     * Метод позволяет получить список событий по идентификаторам с количеством просмотров
+     *
+     * @param ids идентификаторы событий
+     * @return список найденных событий
+     * @since 1.1
+     */
+    List<Event> getEventsByIds(Collection<Integer> ids);
+
+    /**
+     * Метод позволяет получить краткую информацию об опубликованных событиях с наибольшим рейтингом (глобально или
+     * в категории) в порядке убывания рейтинга
+     *
+     * @param categoryId идентификатор категории (null - все категории)
+     * @param cursor     курсор предыдущего набора (null - первый набор)
+     * @param size       количество событий в наборе
+     * @return краткая информация о событиях и курсор следующего набора
+     * @since 1.1
+     */
+    CursorPage<EventShortDto> getTopRatedEvents(Integer categoryId, String cursor, int size);
 }
@@ -76,4 +76,12 @@ public interface LikeService {
      * @since 1.1
      */
     List<AdminDislikeDto> getEventAdminDislikesDto(int eventId, int from, int size);
+
+    /**
+     * Метод позволяет в фоновом режиме пересчитать количество лайков/дизлайков и рейтинг всех событий, а также
+     * рейтинг всех пользователей
+     *
+     * @since 1.1
+     */
+    void recomputeRatings();
 }
@@ -1,5 +1,7 @@
 package ru.practicum.ewm.services;
 
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.EventRequestStatusUpdateDto;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.EventRequestStatusUpdateResultDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.ParticipationRequestDto;
 import ru.practicum.ewm.models.Event;
 import ru.practicum.ewm.models.User;
@@ -45,6 +47,19 @@ public interface RequestService {
      */
     ParticipationRequestDto rejectEventRequest(int userId, int eventId, int reqId);
 
+    /**
+     * Метод позволяет авторизованному пользователю одной операцией подтвердить или отклонить несколько запросов на
+     * участие в его событии
+     *
+     * @param userId    идентификатор организатора события
+     * @param eventId   идентификатор события
+     * @param updateDto идентификаторы запросов и новый статус
+     * @return результат обработки каждого запроса
+     * @since 1.1
+     */
+    Collection<EventRequestStatusUpdateResultDto> updateEventRequestsStatus(int userId, int eventId,
+                                                                            EventRequestStatusUpdateDto updateDto);
+
     /**
      * Метод позволяет авторизованному пользователю получить список Dto всех своих запросов на участие в чужих событиях
      *
@@ -2,6 +2,8 @@ package ru.practicum.ewm.services;
 
 import ru.practicum.ewm.controllers.apis.admins.dtos.users.UserDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.users.NewUserRequest;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.users.UserShortDto;
+import ru.practicum.ewm.models.CursorPage;
 import ru.practicum.ewm.models.User;
 
 import java.util.Collection;
@@ -49,4 +51,15 @@ public interface UserService {
      * @since 1.1
      */
     User getUserById(int userId);
+
+    /**
+     * Метод позволяет получить краткую информацию об организаторах событий с наибольшим рейтингом в порядке
+     * убывания рейтинга
+     *
+     * @param cursor курсор предыдущего набора (null - первый набор)
+     * @param size   количество пользователей в наборе
+     * @return краткая информация о пользователях и курсор следующего набора
+     * @since 1.1
+     */
+    CursorPage<UserShortDto> getTopRatedUsers(String cursor, int size);
 }
@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Класс сервиса для работы с подборками событий, реализующий {@link CompilationService}
@@ -113,9 +114,19 @@ public class CompilationServiceImpl implements CompilationService {
     public CompilationDto addCompilation(NewCompilationDto compilationDto) {
         Compilation compilation = CompilationMapper.toCompilation(compilationDto);
         Set<Integer> eventsId = compilationDto.getEvents();
-        Set<Event> events = new HashSet<>();
-        for (Integer id : eventsId) {
-            events.add(eventService.getEventById(id));
+        Set<Event> events = new HashSet<>(eventService.getEventsByIds(eventsId));
+        if (events.size() != eventsId.size()) {
+            Set<Integer> foundIds = events.stream()
+                    .map(Event::getId)
+                    .collect(Collectors.toSet());
+            Integer missingId = eventsId.stream()
+                    .filter(id -> !foundIds.contains(id))
+                    .findFirst()
+                    .orElseThrow();
+            throw new NotFoundException(List.of(
+                    new Error("id", "неверное значение " + missingId).toString()),
+                    "Невозможно получить событие.",
+                    String.format("Событие с id%d не найдено.", missingId));
         }
         compilation.setEvents(events);
         Compilation savedCompilation = compilationRepository.save(compilation);
@@ -0,0 +1,121 @@
+package ru.practicum.ewm.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.models.ConfirmedRequestsCount;
+import ru.practicum.ewm.repositories.EventRepository;
+import ru.practicum.ewm.repositories.RequestRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Периодическая задача, сверяющая хранимое количество подтвержденных запросов на участие в событиях с таблицей
+ * запросов и исправляющая расхождения. Расхождения ищутся без блокировок постранично, а каждое найденное событие
+ * исправляется в отдельной транзакции под блокировкой его строки, поэтому параллельное занятие или освобождение
+ * мест не может быть перезаписано устаревшим количеством
+ *
+ * @since 1.1
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "requests.reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+public class ConfirmedRequestsReconciliationJob {
+    /**
+     * Количество событий, сверяемых за один запрос
+     *
+     * @since 1.1
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * Интерфейс для работы с репозиторием событий
+     *
+     * @since 1.1
+     */
+    private final EventRepository eventRepository;
+
+    /**
+     * Интерфейс для работы с репозиторием запросов на участие в событиях
+     *
+     * @since 1.1
+     */
+    private final RequestRepository requestRepository;
+
+    /**
+     * Шаблон транзакции, в которой исправляется количество подтвержденных запросов одного события
+     *
+     * @since 1.1
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ConfirmedRequestsReconciliationJob(EventRepository eventRepository, RequestRepository requestRepository,
+                                              PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.requestRepository = requestRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Метод позволяет привести количество подтвержденных запросов во всех событиях в соответствие с таблицей
+     * запросов
+     *
+     * @since 1.1
+     */
+    @Scheduled(initialDelayString = "${requests.reconciliation.initial-delay-ms:0}",
+            fixedDelayString = "${requests.reconciliation.interval-ms:3600000}")
+    public void reconcile() {
+        int repaired = 0;
+        int afterId = 0;
+        List<ConfirmedRequestsCount> stored;
+        do {
+            stored = eventRepository.getStoredConfirmedRequests(afterId, PageRequest.of(0, PAGE_SIZE));
+            if (stored.isEmpty()) {
+                break;
+            }
+            Map<Integer, Integer> counted = requestRepository.getConfirmedRequests(stored.stream()
+                            .map(ConfirmedRequestsCount::getEventId)
+                            .collect(Collectors.toList())).stream()
+                    .collect(Collectors.toMap(ConfirmedRequestsCount::getEventId,
+                            ConfirmedRequestsCount::getConfirmedRequests));
+            for (ConfirmedRequestsCount event : stored) {
+                if (!event.getConfirmedRequests().equals(counted.getOrDefault(event.getEventId(), 0))
+                        && repair(event.getEventId())) {
+                    repaired++;
+                }
+            }
+            afterId = stored.get(stored.size() - 1).getEventId();
+        } while (stored.size() == PAGE_SIZE);
+        if (repaired > 0) {
+            log.warn("Исправлено количество подтвержденных запросов у {} событий.", repaired);
+        }
+    }
+
+    /**
+     * Метод позволяет пересчитать количество подтвержденных запросов одного события под блокировкой его строки.
+     * Подсчет выполняется после получения блокировки, поэтому учитывает все изменения, завершенные до нее, а
+     * изменения, начатые после, дождутся окончания транзакции и применятся к исправленному значению
+     *
+     * @param eventId идентификатор события
+     * @return true - если количество подтвержденных запросов было исправлено
+     * @since 1.1
+     */
+    private boolean repair(int eventId) {
+        Boolean repaired = transactionTemplate.execute(status -> {
+            if (eventRepository.lockEventById(eventId).isEmpty()) {
+                return false;
+            }
+            int confirmedRequests = requestRepository.getConfirmedRequests(eventId);
+            return eventRepository.setConfirmedRequests(eventId, confirmedRequests) > 0;
+        });
+        return Boolean.TRUE.equals(repaired);
+    }
+}
@@ -4,10 +4,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import ru.practicum.ewm.clients.BaseClient;
 import ru.practicum.ewm.clients.EventClient;
+import ru.practicum.ewm.clients.ViewsCache;
 import ru.practicum.ewm.controllers.apis.admins.dtos.events.AdminUpdateEventRequestDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.events.EventDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.events.NewEventDto;
@@ -18,18 +20,18 @@ import ru.practicum.ewm.exceptions.BadRequestException;
 import ru.practicum.ewm.exceptions.ForbiddenException;
 import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.models.Category;
+import ru.practicum.ewm.models.CursorPage;
 import ru.practicum.ewm.models.Event;
+import ru.practicum.ewm.models.EventCursor;
 import ru.practicum.ewm.models.EventSortType;
 import ru.practicum.ewm.models.EventState;
 import ru.practicum.ewm.models.FilterCollector;
 import ru.practicum.ewm.models.User;
 import ru.practicum.ewm.models.dtos.events.EventFullDto;
 import ru.practicum.ewm.models.dtos.events.EventShortDto;
-import ru.practicum.ewm.models.dtos.stats.ViewStatsDto;
 import ru.practicum.ewm.repositories.CategoryRepository;
 import ru.practicum.ewm.repositories.EventCustomRepository;
 import ru.practicum.ewm.repositories.EventRepository;
-import ru.practicum.ewm.repositories.RequestRepository;
 import ru.practicum.ewm.repositories.UserRepository;
 import ru.practicum.ewm.services.EventService;
 
@@ -38,7 +40,9 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -75,49 +79,59 @@ public class EventServiceImpl implements EventService {
     private final CategoryRepository categoryRepository;
 
     /**
-     * Интерфейс для работы с репозиторием запросов на участие в событии, наследующий {@link JpaRepository}
+     * Класс для работы с просмотрами эндпоинтов событий, наследующий {@link BaseClient}
      *
      * @since 1.0
      */
-    private final RequestRepository requestRepository;
+    private final EventClient eventClient;
 
     /**
-     * Класс для работы с просмотрами эндпоинтов событий, наследующий {@link BaseClient}
+     * Локальный кэш количества просмотров эндпоинтов событий
      *
-     * @since 1.0
+     * @since 1.1
      */
-    private final EventClient eventClient;
+    private final ViewsCache viewsCache;
 
     /**
-     * Константа идентификатора текущего микросервиса
+     * Буфер отложенной записи лайков/дизлайков событий
      *
-     * @since 1.0
+     * @since 1.1
      */
-    private static final String APP_NAME = "ewm-main-service";
+    private final EventVoteBuffer eventVoteBuffer;
 
     /**
-     * Константа даты и времени, не раньше которых нужно выполнять поиск
+     * Индекс опубликованных событий в памяти для поиска по тексту
      *
-     * @since 1.0
+     * @since 1.1
      */
-    private static final String START = "1970-01-01 00:00:00";
+    private final PublishedEventIndex publishedEventIndex;
 
     /**
-     * Константа даты и времени, не позже которых нужно выполнять поиск
+     * Константа идентификатора текущего микросервиса
      *
      * @since 1.0
      */
-    private static final String END = "2500-12-31 23:59:59";
+    private static final String APP_NAME = "ewm-main-service";
+
+    /**
+     * Константа префикса URI просмотра события, по которому ведется статистика
+     *
+     * @since 1.1
+     */
+    private static final String EVENT_URI_PREFIX = "/events/";
 
     @Autowired
     public EventServiceImpl(EventRepository eventRepository, UserRepository userRepository,
-                            CategoryRepository categoryRepository, RequestRepository requestRepository,
-                            EventClient eventClient) {
+                            CategoryRepository categoryRepository, EventClient eventClient,
+                            ViewsCache viewsCache, EventVoteBuffer eventVoteBuffer,
+                            PublishedEventIndex publishedEventIndex) {
         this.eventRepository = eventRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
-        this.requestRepository = requestRepository;
         this.eventClient = eventClient;
+        this.viewsCache = viewsCache;
+        this.eventVoteBuffer = eventVoteBuffer;
+        this.publishedEventIndex = publishedEventIndex;
     }
 
     /**
@@ -132,24 +146,34 @@ public class EventServiceImpl implements EventService {
      * @param sort          Вариант сортировки: по дате события (EVENT_DATE) или по количеству просмотров (VIEWS)
      * @param from          количество событий, которые нужно пропустить для формирования текущего набора (по умолчанию 0)
      * @param size          количество событий в наборе (по умолчанию 10)
-     * @return коллекция Dto с кратким описанием событий
+     * @param cursor        курсор предыдущего набора (если передан, from не используется)
+     * @return коллекция Dto с кратким описанием событий и курсор следующего набора (null, если набор последний
+     * или найден по индексу опубликованных событий)
      * @since 1.0
      */
     @Override
-    public Collection<EventShortDto> getAllEvents(FilterCollector filterCollector, HttpServletRequest request) {
-        List<Event> returnedEvents = eventRepository.getAllEvents(filterCollector);
-        for (Event e : returnedEvents) {
-            addViews("/events/" + e.getId(), e);
-            e.setConfirmedRequests(requestRepository.getConfirmedRequests(e.getId()));
-        }
+    public CursorPage<EventShortDto> getAllEvents(FilterCollector filterCollector, HttpServletRequest request) {
+        EventCursor.Key key = EventCursor.keyFor(filterCollector.getSort());
+        EventCursor cursor = filterCollector.getCursor() == null
+                ? null : EventCursor.decode(filterCollector.getCursor(), key);
+        boolean indexed = publishedEventIndex.supports(filterCollector);
+        List<Event> returnedEvents = indexed
+                ? publishedEventIndex.search(filterCollector)
+                : eventRepository.getAllEvents(filterCollector, cursor);
+        // курсор ведет в поиск по базе данных с другой семантикой совпадения текста, поэтому набор, найденный по
+        // индексу, листается только через from
+        String nextCursor = indexed ? null : getNextCursor(returnedEvents, filterCollector.getSize(), key);
+        addViews(returnedEvents);
         eventClient.addHit(APP_NAME, request.getRequestURI(), request.getRemoteAddr());
         if (EventSortType.VIEWS.toString().equals(filterCollector.getSort())) {
-            return EventMapper.toEventDtoCollection(returnedEvents)
+            return new CursorPage<>(EventMapper.toEventDtoCollection(returnedEvents)
                     .stream()
                     .sorted(Comparator.comparing(EventShortDto::getViews).reversed())
-                    .collect(Collectors.toList());
+                    .collect(Collectors.toList()), nextCursor);
         }
-        return EventMapper.toEventDtoCollection(returnedEvents);
+        return new CursorPage<>(returnedEvents.stream()
+                .map(EventMapper::toEventDto)
+                .collect(Collectors.toList()), nextCursor);
     }
 
     /**
@@ -187,8 +211,7 @@ public class EventServiceImpl implements EventService {
                 new Error("id", "неверное значение " + id).toString()),
                 "Невозможно получить событие.",
                 String.format("Событие с id%d не найдено.", id)));
-        event.setConfirmedRequests(requestRepository.getConfirmedRequests(id));
-        addViews("/events/" + id, event);
+        addViews(event);
         return event;
     }
 
@@ -236,24 +259,24 @@ public class EventServiceImpl implements EventService {
      * @param rangeEnd   дата и время, не позже которых должно произойти событие
      * @param from       количество событий, которые нужно пропустить для формирования текущего набора(по умолчанию 0)
      * @param size       количество событий в наборе(по умолчанию 10)
-     * @return полная информация обо всех событиях подходящих под переданные условия
+     * @param cursor     курсор предыдущего набора (если передан, from не используется)
+     * @return полная информация обо всех событиях подходящих под переданные условия и курсор следующего набора
      * @since 1.0
      */
     @Override
-    public Collection<EventFullDto> searchEventsToAdmin(Integer[] users, String[] states, Integer[] categories,
-                                                        String rangeStart, String rangeEnd, int from, int size) {
+    public CursorPage<EventFullDto> searchEventsToAdmin(Integer[] users, String[] states, Integer[] categories,
+                                                        String rangeStart, String rangeEnd, int from, int size,
+                                                        String cursor) {
         log.info("Поиск событий для администратора по запрошенным параметрам.");
         EventState[] states1 = new EventState[states.length];
         for (int i = 0; i < states.length; i++) {
             states1[i] = EventState.valueOf(states[i]);
         }
         List<Event> events = eventRepository.searchEventsToAdmin(users, states1, categories, rangeStart, rangeEnd,
-                from, size);
-        for (Event e : events) {
-            e.setConfirmedRequests(requestRepository.getConfirmedRequests(e.getId()));
-            addViews("/events/" + e.getId(), e);
-        }
-        return EventMapper.toEventFullDtoCollection(events);
+                from, size, cursor == null ? null : EventCursor.decode(cursor, EventCursor.Key.ID));
+        String nextCursor = getNextCursor(events, size, EventCursor.Key.ID);
+        addViews(events);
+        return new CursorPage<>(EventMapper.toEventFullDtoCollection(events), nextCursor);
     }
 
     /**
@@ -275,7 +298,8 @@ public class EventServiceImpl implements EventService {
             event.setRequestModeration(eventDto.getRequestModeration());
         }
         Event updatedEvent = eventRepository.save(event);
-        addViews("/events/" + eventId, updatedEvent);
+        publishedEventIndex.update(updatedEvent);
+        addViews(updatedEvent);
         log.info(String.format("Администратором обновлено событие id%d.", eventId));
         return EventMapper.toEventFullDto(updatedEvent);
     }
@@ -295,10 +319,11 @@ public class EventServiceImpl implements EventService {
             if (event.getEventDate().isAfter(LocalDateTime.now().plusHours(1))) {
                 event.setPublishedOn(LocalDateTime.now());
                 event.setState(EventState.PUBLISHED);
-                event.setConfirmedRequests(0);
                 event.setViews(0);
+                Event publishedEvent = eventRepository.save(event);
+                publishedEventIndex.update(publishedEvent);
                 log.info("Опубликовано событие id{}.", eventId);
-                return EventMapper.toEventFullDto(eventRepository.save(event));
+                return EventMapper.toEventFullDto(publishedEvent);
             } else {
                 log.error("Невозможно опубликовать событие id{}, дата начала события должна быть не раньше, чем через" +
                         " час от момента публикации.", eventId);
@@ -335,10 +360,11 @@ public class EventServiceImpl implements EventService {
                     String.format("Событие id%d имеет статус %s.", eventId, event.getState()));
         }
         event.setState(EventState.CANCELED);
-        event.setConfirmedRequests(0);
         event.setViews(0);
+        Event rejectedEvent = eventRepository.save(event);
+        publishedEventIndex.update(rejectedEvent);
         log.info("Отклонено событие id{}.", eventId);
-        return EventMapper.toEventFullDto(eventRepository.save(event));
+        return EventMapper.toEventFullDto(rejectedEvent);
     }
 
     /**
@@ -347,20 +373,29 @@ public class EventServiceImpl implements EventService {
      * @param userId идентификатор пользователя {@link ru.practicum.ewm.models.User}
      * @param from   количество элементов, которые нужно пропустить для формирования текущего набора(по умолчанию 0)
      * @param size   количество элементов в наборе(по умолчанию 10)
-     * @return краткая информация о событиях пользователя, подходящих под заданные условия
+     * @param cursor курсор предыдущего набора (если передан, from не используется)
+     * @return краткая информация о событиях пользователя, подходящих под заданные условия, и курсор следующего
+     * набора
      * @since 1.0
      */
     @Override
-    public Collection<EventShortDto> getUserEvents(int userId, int from, int size) {
+    public CursorPage<EventShortDto> getUserEvents(int userId, int from, int size, String cursor) {
         User user = getUserById(userId);
-        Pageable page = PageRequest.of(from, size);
-        log.info("Запрошены все события пользователя id{} с {} в размере {}.", userId, from, size);
-        List<Event> events = eventRepository.findEventsByInitiator(user, page);
-        for (Event e : events) {
-            e.setConfirmedRequests(requestRepository.getConfirmedRequests(e.getId()));
-            addViews("/events/" + e.getId(), e);
+        List<Event> events;
+        if (cursor == null) {
+            Pageable page = PageRequest.of(from, size, Sort.by("id"));
+            log.info("Запрошены все события пользователя id{} с {} в размере {}.", userId, from, size);
+            events = eventRepository.findEventsByInitiator(user, page);
+        } else {
+            int afterId = EventCursor.decode(cursor, EventCursor.Key.ID).getId();
+            log.info("Запрошены все события пользователя id{} после id{} в размере {}.", userId, afterId, size);
+            events = eventRepository.findEventsByInitiatorAfter(user, afterId, PageRequest.of(0, size));
         }
-        return EventMapper.toEventDtoCollection(events);
+        String nextCursor = getNextCursor(events, size, EventCursor.Key.ID);
+        addViews(events);
+        return new CursorPage<>(events.stream()
+                .map(EventMapper::toEventDto)
+                .collect(Collectors.toList()), nextCursor);
     }
 
     /**
@@ -400,9 +435,8 @@ public class EventServiceImpl implements EventService {
         if (event.getState().equals(EventState.CANCELED)) {
             event.setState(EventState.PENDING);
         }
-        event.setConfirmedRequests(requestRepository.getConfirmedRequests(eventDto.getEventId()));
         Event updatedEvent = eventRepository.save(event);
-        addViews("/events/" + event.getId(), updatedEvent);
+        addViews(updatedEvent);
         log.info(String.format("Обновлено событие id%d пользователя id%d.", eventDto.getEventId(), userId));
         return EventMapper.toEventFullDto(updatedEvent);
     }
@@ -452,9 +486,8 @@ public class EventServiceImpl implements EventService {
     public EventFullDto getUserEvent(int userId, int eventId) {
         User user = getUserById(userId);
         Event event = getEventByIdAndUser(eventId, user);
-        event.setConfirmedRequests(requestRepository.getConfirmedRequests(eventId));
         log.info("Запрошено событие id{} пользователя id{}.", eventId, userId);
-        addViews("/events/" + eventId, event);
+        addViews(event);
         return (EventMapper.toEventFullDto(event));
     }
 
@@ -480,13 +513,61 @@ public class EventServiceImpl implements EventService {
             );
         }
         event.setState(EventState.CANCELED);
-        event.setConfirmedRequests(0);
         event.setViews(0);
         Event savedEvent = eventRepository.save(event);
+        publishedEventIndex.update(savedEvent);
         log.info("Отменено событие id{} пользователя id{}.", eventId, userId);
         return EventMapper.toEventFullDto(savedEvent);
     }
 
+    /**
+     * Метод позволяет получить список событий по идентификаторам с количеством просмотров
+     *
+     * @param ids идентификаторы событий
+     * @return список найденных событий
+     * @since 1.1
+     */
+    @Override
+    public List<Event> getEventsByIds(Collection<Integer> ids) {
+        List<Event> events = eventRepository.findAllById(ids);
+        addViews(events);
+        return events;
+    }
+
+    /**
+     * Метод позволяет получить краткую информацию об опубликованных событиях с наибольшим рейтингом (глобально или
+     * в категории) в порядке убывания рейтинга. Следующий набор начинается после рейтинга и идентификатора из
+     * курсора, поэтому выборка идет по индексу без пропуска предыдущих строк, а изменение рейтинга последнего
+     * события между запросами не сдвигает границу набора
+     *
+     * @param categoryId идентификатор категории (null - все категории)
+     * @param cursor     курсор предыдущего набора (null - первый набор)
+     * @param size       количество событий в наборе
+     * @return краткая информация о событиях и курсор следующего набора
+     * @since 1.1
+     */
+    @Override
+    public CursorPage<EventShortDto> getTopRatedEvents(Integer categoryId, String cursor, int size) {
+        float afterRating = Float.MAX_VALUE;
+        int afterId = Integer.MAX_VALUE;
+        if (cursor != null) {
+            EventCursor after = EventCursor.decode(cursor, EventCursor.Key.RATING);
+            afterRating = after.getRating();
+            afterId = after.getId();
+        }
+        List<Event> events = categoryId == null
+                ? eventRepository.getTopRatedEvents(EventState.PUBLISHED, afterRating, afterId,
+                PageRequest.of(0, size))
+                : eventRepository.getTopRatedEventsByCategory(categoryId, EventState.PUBLISHED, afterRating, afterId,
+                PageRequest.of(0, size));
+        String nextCursor = getNextCursor(events, size, EventCursor.Key.RATING);
+        addViews(events);
+        log.info("Запрошен рейтинг событий категории {} после события id{} в размере {}.", categoryId, afterId, size);
+        return new CursorPage<>(events.stream()
+                .map(EventMapper::toEventDto)
+                .collect(Collectors.toList()), nextCursor);
+    }
+
     @Override
     public List<Event> findEventsByInitiator(User initiator, int from, int size) {
         Pageable page = PageRequest.of(from, size);
@@ -524,19 +605,50 @@ public class EventServiceImpl implements EventService {
         return eventOpt.get();
     }
 
+    /**
+     * Метод позволяет получить курсор следующего набора событий по последнему событию полного набора
+     *
+     * @param events события текущего набора
+     * @param size   запрошенное количество событий в наборе
+     * @param key    ключ сортировки курсора
+     * @return строка курсора или null, если набор последний или сортировка не поддерживает курсор
+     * @since 1.1
+     */
+    private String getNextCursor(List<Event> events, int size, EventCursor.Key key) {
+        if (key == null || events.isEmpty() || events.size() < size) {
+            return null;
+        }
+        return EventCursor.after(events.get(events.size() - 1), key).encode();
+    }
+
     /**
      * Метод позволяет добавить просмотры в событие на основе полученной статистики просмотров эндпоинтов
      *
-     * @param uri   URI, для которого запрашивается статистика
      * @param event событие, в которое добавляются просмотры
      * @since 1.0
      */
-    private void addViews(String uri, Event event) {
-        ViewStatsDto[] views = eventClient.getStats(START, END, new String[]{uri}, false);
-        if (views.length == 0) {
-            event.setViews(0);
-        } else {
-            event.setViews(views[0].getHits());
+    private void addViews(Event event) {
+        addViews(List.of(event));
+    }
+
+    /**
+     * Метод позволяет добавить просмотры в коллекцию событий одним запросом к сервису статистики, а также учесть
+     * еще не сохраненные лайки/дизлайки событий
+     *
+     * @param events события, в которые добавляются просмотры
+     * @since 1.1
+     */
+    private void addViews(Collection<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        eventVoteBuffer.addPendingVotes(events);
+        Set<String> uris = events.stream()
+                .map(e -> EVENT_URI_PREFIX + e.getId())
+                .collect(Collectors.toSet());
+        Map<String, Integer> hitsByUri = viewsCache.getViews(uris);
+        for (Event e : events) {
+            e.setViews(hitsByUri.getOrDefault(EVENT_URI_PREFIX + e.getId(), 0));
         }
     }
 }
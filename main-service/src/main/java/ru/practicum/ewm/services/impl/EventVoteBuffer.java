@@ -0,0 +1,406 @@
+package ru.practicum.ewm.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.models.Event;
+import ru.practicum.ewm.models.EventRatingChange;
+import ru.practicum.ewm.repositories.EventRepository;
+import ru.practicum.ewm.repositories.LikeRepository;
+import ru.practicum.ewm.repositories.UserRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Буфер отложенной записи лайков/дизлайков событий. Изменения количества лайков и дизлайков накапливаются в
+ * счетчиках {@link LongAdder} по каждому событию и периодически сохраняются в таблицу событий отдельным запросом на
+ * событие, так что частые оценки одного события не блокируют его строку на каждом голосе. Голос добавляется в
+ * счетчик атомарно вместе с его поиском в буфере, поэтому счетчик, извлеченный из буфера для сохранения, больше не
+ * изменяется. Если буфер отключен, изменения сохраняются сразу
+ *
+ * @since 1.1
+ */
+@Component
+@Slf4j
+public class EventVoteBuffer {
+    /**
+     * Интерфейс для работы с репозиторием событий
+     *
+     * @since 1.1
+     */
+    private final EventRepository eventRepository;
+
+    /**
+     * Интерфейс для работы с репозиторием пользователей
+     *
+     * @since 1.1
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * Интерфейс для работы с репозиторием лайков/дизлайков
+     *
+     * @since 1.1
+     */
+    private final LikeRepository likeRepository;
+
+    /**
+     * Шаблон транзакции, в которой сохраняются изменения одного события и рейтинга его организатора
+     *
+     * @since 1.1
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Включено ли накопление изменений в памяти
+     *
+     * @since 1.1
+     */
+    private final boolean enabled;
+
+    /**
+     * Несохраненные изменения количества лайков/дизлайков по идентификатору события
+     *
+     * @since 1.1
+     */
+    private volatile Map<Integer, VoteCounters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Счетчики, отделенные выполняющимся пересчетом рейтингов. После фиксации пересчета они отбрасываются, а после
+     * отката возвращаются в буфер
+     *
+     * @since 1.1
+     */
+    private volatile Map<Integer, VoteCounters> discarding;
+
+    /**
+     * Счетчики, извлеченные из {@link #counters} для сохранения. Счетчик остается здесь до успешного сохранения,
+     * а при ошибке сохраняется повторно при следующем сохранении буфера
+     *
+     * @since 1.1
+     */
+    private final Queue<Map.Entry<Integer, VoteCounters>> detached = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Номер поколения новых счетчиков. Увеличивается, когда пересчет рейтингов отделяет несохраненные изменения
+     *
+     * @since 1.1
+     */
+    private volatile int generation;
+
+    /**
+     * Номер последнего отброшенного поколения счетчиков. Счетчики этого и предыдущих поколений уже учтены
+     * зафиксированным пересчетом рейтингов и не сохраняются
+     *
+     * @since 1.1
+     */
+    private volatile int discardedGeneration = -1;
+
+    /**
+     * Количество сохраненных событий
+     *
+     * @since 1.1
+     */
+    private final Counter flushedEvents;
+
+    /**
+     * Количество событий, изменения которых не удалось сохранить
+     *
+     * @since 1.1
+     */
+    private final Counter failedEvents;
+
+    @Autowired
+    public EventVoteBuffer(EventRepository eventRepository, UserRepository userRepository,
+                           LikeRepository likeRepository, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry, @Value("${likes.vote-buffer.enabled:false}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.likeRepository = likeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        meterRegistry.gauge("ewm.likes.buffer.events", this, buffer -> buffer.counters.size());
+        this.flushedEvents = meterRegistry.counter("ewm.likes.buffer.flushed", "result", "flushed");
+        this.failedEvents = meterRegistry.counter("ewm.likes.buffer.flushed", "result", "failed");
+    }
+
+    /**
+     * Метод позволяет изменить количество лайков/дизлайков события и его рейтинг. Если буфер включен, изменения
+     * накапливаются в памяти, иначе сохраняются одним запросом вместе с рейтингом организатора события
+     *
+     * @param eventId       идентификатор события
+     * @param initiatorId   идентификатор организатора события
+     * @param likesDelta    изменение количества лайков
+     * @param dislikesDelta изменение количества дизлайков
+     * @since 1.1
+     */
+    public void addVotes(int eventId, int initiatorId, int likesDelta, int dislikesDelta) {
+        if (!enabled) {
+            applyVotes(eventId, initiatorId, likesDelta, dislikesDelta);
+            return;
+        }
+        counters.compute(eventId, (id, eventCounters) -> {
+            VoteCounters current = eventCounters != null ? eventCounters : new VoteCounters(initiatorId, generation);
+            current.likes.add(likesDelta);
+            current.dislikes.add(dislikesDelta);
+            return current;
+        });
+    }
+
+    /**
+     * Метод позволяет добавить к сохраненному количеству лайков/дизлайков событий несохраненные изменения и
+     * пересчитать рейтинг. Должен вызываться один раз для каждого загруженного события
+     *
+     * @param events события
+     * @since 1.1
+     */
+    public void addPendingVotes(Collection<Event> events) {
+        Map<Integer, VoteCounters> current = counters;
+        Map<Integer, VoteCounters> discarded = discarding;
+        if (!enabled || (current.isEmpty() && detached.isEmpty() && discarded == null)) {
+            return;
+        }
+        Map<Integer, long[]> pending = new HashMap<>();
+        for (Map.Entry<Integer, VoteCounters> entry : detached) {
+            addPending(pending, entry.getKey(), entry.getValue());
+        }
+        for (Event event : events) {
+            VoteCounters eventCounters = current.get(event.getId());
+            if (eventCounters != null) {
+                addPending(pending, event.getId(), eventCounters);
+            }
+            VoteCounters discardedCounters = discarded == null ? null : discarded.get(event.getId());
+            if (discardedCounters != null) {
+                addPending(pending, event.getId(), discardedCounters);
+            }
+            long[] deltas = pending.get(event.getId());
+            if (deltas == null) {
+                continue;
+            }
+            event.setLikes(event.getLikes() + (int) deltas[0]);
+            event.setDislikes(event.getDislikes() + (int) deltas[1]);
+            event.setRating(calculateRating(event.getLikes(), event.getDislikes()));
+        }
+    }
+
+    /**
+     * Метод позволяет добавить несохраненные изменения счетчиков события к сумме изменений, если поколение
+     * счетчиков не отброшено
+     *
+     * @param pending       сумма изменений лайков и дизлайков по идентификатору события
+     * @param eventId       идентификатор события
+     * @param eventCounters счетчики изменений события
+     * @since 1.1
+     */
+    private void addPending(Map<Integer, long[]> pending, int eventId, VoteCounters eventCounters) {
+        if (eventCounters.generation <= discardedGeneration) {
+            return;
+        }
+        long[] deltas = pending.computeIfAbsent(eventId, id -> new long[2]);
+        deltas[0] += eventCounters.likes.sum();
+        deltas[1] += eventCounters.dislikes.sum();
+    }
+
+    /**
+     * Метод позволяет отбросить все несохраненные изменения количества лайков/дизлайков после фиксации текущей
+     * транзакции. Должен вызываться в транзакции пересчета рейтингов под исключительной блокировкой оценок, когда
+     * все накопленные изменения уже учтены в таблице лайков. Новые голоса накапливаются в новых счетчиках, а при
+     * откате пересчета отделенные изменения возвращаются в буфер и сохраняются как обычно
+     *
+     * @since 1.1
+     */
+    public void discardPendingVotes() {
+        if (!enabled) {
+            return;
+        }
+        int discardedCountersGeneration = generation;
+        Map<Integer, VoteCounters> discarded = counters;
+        discarding = discarded;
+        generation = discardedCountersGeneration + 1;
+        counters = new ConcurrentHashMap<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                discardedGeneration = discardedCountersGeneration;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    for (Integer eventId : discarded.keySet()) {
+                        VoteCounters eventCounters = discarded.remove(eventId);
+                        if (eventCounters != null) {
+                            detached.add(Map.entry(eventId, eventCounters));
+                        }
+                    }
+                }
+                discarding = null;
+            }
+        });
+    }
+
+    /**
+     * Метод позволяет сохранить накопленные изменения количества лайков/дизлайков всех событий, а также
+     * изменения, которые не удалось сохранить ранее
+     *
+     * @since 1.1
+     */
+    @Scheduled(fixedDelayString = "${likes.vote-buffer.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        Map<Integer, VoteCounters> current = counters;
+        for (Integer eventId : current.keySet()) {
+            VoteCounters eventCounters = current.remove(eventId);
+            if (eventCounters != null) {
+                detached.add(Map.entry(eventId, eventCounters));
+            }
+        }
+        List<Map.Entry<Integer, VoteCounters>> flushed = new ArrayList<>(detached);
+        for (Map.Entry<Integer, VoteCounters> entry : flushed) {
+            if (flush(entry.getKey(), entry.getValue())) {
+                detached.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Метод позволяет сохранить оставшиеся изменения при остановке сервиса
+     *
+     * @since 1.1
+     */
+    @PreDestroy
+    private void stop() {
+        flush();
+        if (!detached.isEmpty()) {
+            log.error("При остановке не сохранены лайки/дизлайки {} событий.", detached.size());
+        }
+    }
+
+    /**
+     * Метод позволяет сохранить изменения одного события из счетчика, извлеченного из буфера. Поколение счетчика
+     * проверяется под разделяемой блокировкой оценок, чтобы не сохранить изменения, отброшенные параллельным
+     * пересчетом рейтингов. Если пересчет уже завершился, но его результат еще не применен к буферу, сохранение
+     * счетчика предыдущего поколения откладывается до следующего сохранения буфера
+     *
+     * @param eventId       идентификатор события
+     * @param eventCounters счетчики изменений события
+     * @return true - если изменения сохранены или отброшены, false - если их нужно сохранить повторно
+     * @since 1.1
+     */
+    private boolean flush(int eventId, VoteCounters eventCounters) {
+        long likesDelta = eventCounters.likes.sum();
+        long dislikesDelta = eventCounters.dislikes.sum();
+        if (likesDelta == 0 && dislikesDelta == 0) {
+            return true;
+        }
+        try {
+            FlushResult result = transactionTemplate.execute(status -> {
+                likeRepository.lockVotesShared();
+                if (eventCounters.generation <= discardedGeneration) {
+                    return FlushResult.DISCARDED;
+                } else if (discarding != null && eventCounters.generation < generation) {
+                    return FlushResult.DEFERRED;
+                }
+                return applyVotes(eventId, eventCounters.initiatorId, (int) likesDelta, (int) dislikesDelta) != null
+                        ? FlushResult.SAVED : FlushResult.DISCARDED;
+            });
+            if (result == FlushResult.SAVED) {
+                flushedEvents.increment();
+            }
+            return result != FlushResult.DEFERRED;
+        } catch (RuntimeException e) {
+            failedEvents.increment();
+            log.error("Не удалось сохранить лайки/дизлайки события id{}: {}", eventId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Метод позволяет одним запросом изменить количество лайков/дизлайков и рейтинг события, а затем обновить
+     * рейтинг организатора события на изменение рейтинга этого события
+     *
+     * @param eventId       идентификатор события
+     * @param initiatorId   идентификатор организатора события
+     * @param likesDelta    изменение количества лайков
+     * @param dislikesDelta изменение количества дизлайков
+     * @return количество лайков/дизлайков и рейтинг события до и после изменения или null (если событие удалено)
+     * @since 1.1
+     */
+    private EventRatingChange applyVotes(int eventId, int initiatorId, int likesDelta, int dislikesDelta) {
+        EventRatingChange change = eventRepository.addVotes(eventId, likesDelta, dislikesDelta);
+        if (change == null) {
+            log.warn("Событие id{} удалено, изменения его лайков/дизлайков отброшены.", eventId);
+            return null;
+        }
+        boolean rated = change.getLikes() > 0 || change.getDislikes() > 0;
+        boolean wasRated = change.getOldRated();
+        double ratingDelta = (rated ? change.getRating() : 0f) - (wasRated ? change.getOldRating() : 0f);
+        int ratedEventsDelta = (rated ? 1 : 0) - (wasRated ? 1 : 0);
+        userRepository.addEventRating(initiatorId, ratingDelta, ratedEventsDelta);
+        return change;
+    }
+
+    /**
+     * Метод позволяет рассчитать рейтинг события на основе количества лайков и дизлайков
+     *
+     * @param likes    количество лайков
+     * @param dislikes количество дизлайков
+     * @return рейтинг события
+     * @since 1.1
+     */
+    private static float calculateRating(int likes, int dislikes) {
+        if (likes > 0 && dislikes == 0) {
+            return 5;
+        } else if (likes == 0 || likes == dislikes) {
+            return 0;
+        }
+        return (float) likes / dislikes;
+    }
+
+    /**
+     * Результат сохранения изменений одного события
+     *
+     * @since 1.1
+     */
+    private enum FlushResult {
+        SAVED,
+        DISCARDED,
+        DEFERRED
+    }
+
+    /**
+     * Счетчики несохраненных изменений количества лайков/дизлайков одного события
+     *
+     * @since 1.1
+     */
+    private static class VoteCounters {
+        private final int initiatorId;
+        private final int generation;
+        private final LongAdder likes = new LongAdder();
+        private final LongAdder dislikes = new LongAdder();
+
+        private VoteCounters(int initiatorId, int generation) {
+            this.initiatorId = initiatorId;
+            this.generation = generation;
+        }
+    }
+}
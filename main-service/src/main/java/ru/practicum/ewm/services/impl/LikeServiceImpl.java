@@ -4,7 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.ewm.controllers.apis.admins.dtos.likes.AdminDislikeDto;
 import ru.practicum.ewm.controllers.apis.admins.dtos.likes.AdminLikeDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.likes.DislikeDto;
@@ -13,23 +17,22 @@ import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.mappers.EventMappe
 import ru.practicum.ewm.errors.Error;
 import ru.practicum.ewm.exceptions.ConflictException;
 import ru.practicum.ewm.exceptions.ForbiddenException;
+import ru.practicum.ewm.exceptions.NotFoundException;
 import ru.practicum.ewm.models.Event;
 import ru.practicum.ewm.models.EventState;
+import ru.practicum.ewm.models.EventVoteTarget;
 import ru.practicum.ewm.models.Like;
-import ru.practicum.ewm.models.User;
+import ru.practicum.ewm.models.RequestState;
 import ru.practicum.ewm.models.dtos.events.EventShortDto;
 import ru.practicum.ewm.repositories.EventRepository;
 import ru.practicum.ewm.repositories.LikeRepository;
 import ru.practicum.ewm.repositories.UserRepository;
 import ru.practicum.ewm.services.EventService;
 import ru.practicum.ewm.services.LikeService;
-import ru.practicum.ewm.services.RequestService;
-import ru.practicum.ewm.services.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Сервис для работы с лайками/дизлайками событий, реализующий интерфейс {@link LikeService}
@@ -41,62 +44,110 @@ import java.util.stream.Collectors;
 public class LikeServiceImpl implements LikeService {
     private final EventService eventService;
     private final LikeRepository likeRepository;
-    private final UserService userService;
-    private final RequestService requestService;
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
+    private final EventVoteBuffer eventVoteBuffer;
+    private final AtomicBoolean recomputeRunning = new AtomicBoolean();
 
     @Autowired
-    public LikeServiceImpl(EventService eventService, LikeRepository likeRepository, UserService userService,
-                           RequestService requestService, EventRepository eventRepository, UserRepository userRepository) {
+    public LikeServiceImpl(EventService eventService, LikeRepository likeRepository,
+                           EventRepository eventRepository, UserRepository userRepository,
+                           EventVoteBuffer eventVoteBuffer) {
         this.eventService = eventService;
         this.likeRepository = likeRepository;
-        this.userService = userService;
-        this.requestService = requestService;
         this.eventRepository = eventRepository;
         this.userRepository = userRepository;
+        this.eventVoteBuffer = eventVoteBuffer;
     }
 
     @Override
+    @Transactional
     public EventShortDto addLike(int userId, int eventId) {
-        Event event = eventService.getEventById(eventId);
-        checkEventPublished(event);
-        checkEventOwnerForUserIsTrue(userId, event.getInitiator().getId());
-        checkEventDateTime(event.getEventDate());
-        User user = userService.getUserById(userId);
-        checkUserEventParticipation(event, user);
-        Optional<Like> like = likeRepository.findByUserAndEventAndIsLikeIsTrue(user, event);
-        if (like.isPresent()) {
-            log.error("Пользователь id{} уже поставил like событию id{}.", userId, eventId);
+        return vote(userId, eventId, true);
+    }
+
+    /**
+     * Метод позволяет поставить лайк/дизлайк событию одним запросом, заменив противоположную оценку пользователя,
+     * и передать изменение количества лайков/дизлайков события в буфер {@link EventVoteBuffer}. Событие,
+     * пользователь и его участие в событии проверяются одним запросом без загрузки события, а событие для ответа
+     * загружается после голоса без запроса количества просмотров
+     *
+     * @param userId  идентификатор пользователя
+     * @param eventId идентификатор события
+     * @param isLike  true - лайк, false - дизлайк
+     * @return событие с обновленным рейтингом
+     * @since 1.1
+     */
+    private EventShortDto vote(int userId, int eventId, boolean isLike) {
+        String vote = isLike ? "like" : "dislike";
+        EventVoteTarget target = eventRepository.getVoteTarget(eventId, userId, RequestState.CONFIRMED)
+                .orElseThrow(() -> eventNotFound(eventId));
+        checkEventPublished(eventId, target.getState());
+        checkEventOwnerForUserIsTrue(userId, target.getInitiatorId());
+        checkEventDateTime(target.getEventDate());
+        checkUserExists(userId, target.getUsers());
+        checkUserEventParticipation(target.getParticipations());
+        likeRepository.lockVotesShared();
+        Boolean inserted = likeRepository.upsertVote(userId, eventId, isLike);
+        if (inserted == null) {
+            log.error("Пользователь id{} уже поставил {} событию id{}.", userId, vote, eventId);
             throw new ConflictException(List.of(
                     new Error("eventId", "неверное значение").toString()),
-                    String.format("Невозможно поставить like событию id%d.", eventId),
-                    String.format("Пользователь id%d уже поставил like событию id%d.", userId, eventId));
+                    String.format("Невозможно поставить %s событию id%d.", vote, eventId),
+                    String.format("Пользователь id%d уже поставил %s событию id%d.", userId, vote, eventId));
         }
-        Optional<Like> dislike = likeRepository.findByUserAndEventAndIsLikeIsFalse(user, event);
-        if (dislike.isPresent()) {
-            likeRepository.delete(dislike.get());
-            event.setDislikes(event.getDislikes() - 1);
+        int replaced = inserted ? 0 : -1;
+        if (isLike) {
+            eventVoteBuffer.addVotes(eventId, target.getInitiatorId(), 1, replaced);
+        } else {
+            eventVoteBuffer.addVotes(eventId, target.getInitiatorId(), replaced, 1);
         }
-        likeRepository.save(new Like(user, event, true));
-        event.setConfirmedRequests(requestService.getConfirmedRequests(eventId));
-        User initiator = event.getInitiator();
-        event.setLikes(event.getLikes() + 1);
-        calculateEventRating(event);
-        calculateUserRating(initiator);
-        eventRepository.save(event);
-        userRepository.save(initiator);
-        log.info("Пользователь id{} поставил like событию id{}.", userId, eventId);
+        log.info("Пользователь id{} поставил {} событию id{}.", userId, vote, eventId);
+        Event event = eventRepository.findById(eventId).orElseThrow(() -> eventNotFound(eventId));
+        eventVoteBuffer.addPendingVotes(List.of(event));
         return EventMapper.toEventDto(event);
     }
 
+    /**
+     * Метод позволяет создать исключение о том, что событие не найдено
+     *
+     * @param eventId идентификатор события
+     * @return исключение
+     * @since 1.1
+     */
+    private NotFoundException eventNotFound(int eventId) {
+        log.error("Событие id{} не найдено.", eventId);
+        return new NotFoundException(List.of(
+                new Error("id", "неверное значение " + eventId).toString()),
+                "Невозможно получить событие.",
+                String.format("Событие с id%d не найдено.", eventId));
+    }
+
+    /**
+     * Метод позволяет проверить существует ли пользователь
+     *
+     * @param userId идентификатор пользователя
+     * @param users  количество пользователей с переданным идентификатором
+     * @since 1.1
+     */
+    private void checkUserExists(int userId, long users) {
+        if (users == 0) {
+            log.error("Пользователь id{} не найден.", userId);
+            throw new NotFoundException(List.of(
+                    new Error("userId", "неверное значение " + userId).toString()),
+                    "Невозможно получить пользователя.",
+                    String.format("Пользователь с id%d не найден.", userId));
+        }
+    }
+
     /**
      * Метод позволяет проверить участвовал ли пользователь в событии
      *
+     * @param participations количество подтвержденных запросов пользователя на участие в событии
      * @since 1.1
      */
-    private void checkUserEventParticipation(Event event, User user) {
-        if (!requestService.checkUserEventParticipation(event, user)) {
+    private void checkUserEventParticipation(long participations) {
+        if (participations == 0) {
             log.error("Нельзя поставить лайк/дизлайк событию, в котором не участвовал пользователь.");
             throw new ForbiddenException(List.of(
                     new Error("eventId", "неверное значение").toString()),
@@ -151,12 +202,7 @@ public class LikeServiceImpl implements LikeService {
     private List<Like> getEventAdminLikes(int eventId, Pageable page) {
         Event event = eventService.getEventById(eventId);
         log.info("Администратор запросил все лайки события id{}.", eventId);
-        List<Like> likes = likeRepository.findAllByEventAndIsLikeIsTrue(event, page);
-        likes.forEach(like -> {
-            like.getEvent().setConfirmedRequests(requestService.getConfirmedRequests(eventId));
-            calculateUserRating(like.getUser());
-        });
-        return likes;
+        return likeRepository.findAllByEventAndIsLikeIsTrue(event, page);
     }
 
     /**
@@ -177,12 +223,12 @@ public class LikeServiceImpl implements LikeService {
     /**
      * Метод позволяет проверить опубликовано ли событие
      *
-     * @param event идентификатор события
+     * @param eventId идентификатор события
+     * @param state   статус события
      * @since 1.1
      */
-    private void checkEventPublished(Event event) {
-        int eventId = event.getId();
-        if (!EventState.PUBLISHED.equals(event.getState())) {
+    private void checkEventPublished(int eventId, EventState state) {
+        if (!EventState.PUBLISHED.equals(state)) {
             log.error("У неопубликованного события id{} не может быть лайков/дизлайков", eventId);
             throw new ForbiddenException(List.of(
                     new Error("eventId", "неверное значение").toString()),
@@ -226,36 +272,9 @@ public class LikeServiceImpl implements LikeService {
     }
 
     @Override
+    @Transactional
     public EventShortDto addDislike(int userId, int eventId) {
-        Event event = eventService.getEventById(eventId);
-        checkEventPublished(event);
-        checkEventOwnerForUserIsTrue(userId, event.getInitiator().getId());
-        checkEventDateTime(event.getEventDate());
-        User user = userService.getUserById(userId);
-        checkUserEventParticipation(event, user);
-        Optional<Like> dislike = likeRepository.findByUserAndEventAndIsLikeIsFalse(user, event);
-        if (dislike.isPresent()) {
-            log.error("Пользователь id{} уже поставил dislike событию id{}.", userId, eventId);
-            throw new ConflictException(List.of(
-                    new Error("eventId", "неверное значение").toString()),
-                    String.format("Невозможно поставить dislike событию id%d.", eventId),
-                    String.format("Пользователь id%d уже поставил dislike событию id%d.", userId, eventId));
-        }
-        Optional<Like> like = likeRepository.findByUserAndEventAndIsLikeIsTrue(user, event);
-        if (like.isPresent()) {
-            likeRepository.delete(like.get());
-            event.setLikes(event.getLikes() - 1);
-        }
-        likeRepository.save(new Like(user, event, false));
-        event.setConfirmedRequests(requestService.getConfirmedRequests(eventId));
-        User initiator = event.getInitiator();
-        event.setDislikes(event.getDislikes() + 1);
-        calculateEventRating(event);
-        calculateUserRating(initiator);
-        eventRepository.save(event);
-        userRepository.save(initiator);
-        log.info("Пользователь id{} поставил dislike событию id{}.", userId, eventId);
-        return EventMapper.toEventDto(event);
+        return vote(userId, eventId, false);
     }
 
     @Override
@@ -274,12 +293,7 @@ public class LikeServiceImpl implements LikeService {
     private List<Like> getEventAdminDislikes(int eventId, Pageable page) {
         Event event = eventService.getEventById(eventId);
         log.info("Администратор запросил все дизлайки события id{}.", eventId);
-        List<Like> dislikes = likeRepository.findAllByEventAndIsLikeIsFalse(event, page);
-        dislikes.forEach(like -> {
-            like.getEvent().setConfirmedRequests(requestService.getConfirmedRequests(eventId));
-            calculateUserRating(like.getUser());
-        });
-        return dislikes;
+        return likeRepository.findAllByEventAndIsLikeIsFalse(event, page);
     }
 
     /**
@@ -298,43 +312,36 @@ public class LikeServiceImpl implements LikeService {
     }
 
     /**
-     * Метод позволяет рассчитать рейтинг события на основе количества лайков и дизлайков
+     * Метод позволяет в фоновом режиме пересчитать количество лайков/дизлайков и рейтинг всех событий, а также
+     * рейтинг всех пользователей пакетными SQL запросами. Одновременно выполняется не больше одного пересчета, а
+     * признак выполнения снимается только после завершения транзакции. Пересчет берет исключительную блокировку
+     * оценок, поэтому дожидается завершения начатых голосов, не дает записывать новые до своего завершения и
+     * после фиксации отбрасывает несохраненные изменения буфера {@link EventVoteBuffer}, уже учтенные в таблице
+     * лайков. При откате пересчета эти изменения остаются в буфере
      *
-     * @param event событие для расчёта рейтинга
      * @since 1.1
      */
-    private void calculateEventRating(Event event) {
-        float rating;
-        float likes = event.getLikes();
-        float dislikes = event.getDislikes();
-        if (likes > 0 && dislikes == 0) {
-            rating = 5;
-        } else if ((dislikes > 0 && likes == 0) || (likes == dislikes)) {
-            rating = 0;
-        } else {
-            rating = likes / dislikes;
-        }
-        event.setRating(rating);
-    }
-
-    /**
-     * Метод позволяет рассчитать рейтинг пользователя на основе рейтинга его событий
-     *
-     * @param user организатор событий
-     * @since 1.1
-     */
-    public void calculateUserRating(User user) {
-        List<Event> userEventsWithRating = eventService.findEventsByInitiator(user, 0, Integer.MAX_VALUE).stream()
-                .filter(event -> event.getLikes() > 0 || event.getDislikes() > 0)
-                .collect(Collectors.toList());
-        float sumOfEventRating = 0f;
-        if (userEventsWithRating.size() == 0) {
-            user.setRating(sumOfEventRating);
+    @Override
+    @Async
+    @Transactional
+    public void recomputeRatings() {
+        if (!recomputeRunning.compareAndSet(false, true)) {
+            log.warn("Пересчет рейтингов уже выполняется.");
             return;
         }
-        for (Event uwr : userEventsWithRating) {
-            sumOfEventRating = sumOfEventRating + uwr.getRating();
-        }
-        user.setRating(sumOfEventRating / userEventsWithRating.size());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                recomputeRunning.set(false);
+            }
+        });
+        long start = System.currentTimeMillis();
+        likeRepository.lockVotesExclusive();
+        eventVoteBuffer.discardPendingVotes();
+        int events = eventRepository.recalculateLikes();
+        eventRepository.recalculateRatings();
+        int users = userRepository.recalculateRatings();
+        log.info("Пересчитаны рейтинги {} событий и {} пользователей за {} мс.", events, users,
+                System.currentTimeMillis() - start);
     }
 }
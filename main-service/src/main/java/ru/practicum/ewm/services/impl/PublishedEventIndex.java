@@ -0,0 +1,418 @@
+package ru.practicum.ewm.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.mappers.EventMapper;
+import ru.practicum.ewm.models.Event;
+import ru.practicum.ewm.models.EventSortType;
+import ru.practicum.ewm.models.EventState;
+import ru.practicum.ewm.models.FilterCollector;
+import ru.practicum.ewm.repositories.EventRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс опубликованных событий в памяти для поиска по тексту. Для каждого слова аннотации и
+ * подробного описания хранится отсортированный массив идентификаторов событий, а для каждого события - поля,
+ * по которым выполняется фильтрация. Из базы данных загружается только итоговая страница найденных событий
+ *
+ * @since 1.1
+ */
+@Component
+@Slf4j
+public class PublishedEventIndex {
+    /**
+     * Количество событий, загружаемых за один запрос при построении индекса
+     *
+     * @since 1.1
+     */
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    /**
+     * Интерфейс для работы с репозиторием событий
+     *
+     * @since 1.1
+     */
+    private final EventRepository eventRepository;
+
+    /**
+     * Включен ли индекс
+     *
+     * @since 1.1
+     */
+    private final boolean enabled;
+
+    /**
+     * Блокировка, разделяющая поиск по индексу и его изменение
+     *
+     * @since 1.1
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Отсортированные идентификаторы событий по слову
+     *
+     * @since 1.1
+     */
+    private final NavigableMap<String, int[]> postings = new TreeMap<>();
+
+    /**
+     * Проиндексированные события по идентификатору
+     *
+     * @since 1.1
+     */
+    private final Map<Integer, IndexedEvent> events = new HashMap<>();
+
+    /**
+     * Построен ли индекс
+     *
+     * @since 1.1
+     */
+    private volatile boolean ready;
+
+    /**
+     * Идентификаторы событий, измененных во время построения индекса (null, если индекс не строится). Построение не
+     * перезаписывает такие события, потому что прочитанная им версия может быть старше уже примененного изменения
+     *
+     * @since 1.1
+     */
+    private Set<Integer> updatedWhileBuilding;
+
+    @Autowired
+    public PublishedEventIndex(EventRepository eventRepository,
+                               @Value("${events.search.index.enabled:false}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Метод позволяет построить индекс по всем опубликованным событиям после запуска приложения
+     *
+     * @since 1.1
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            updatedWhileBuilding = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        PageRequest page = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("id"));
+        Slice<Event> slice;
+        do {
+            slice = eventRepository.findEventsByState(EventState.PUBLISHED, page);
+            lock.writeLock().lock();
+            try {
+                for (Event event : slice) {
+                    if (!updatedWhileBuilding.contains(event.getId())) {
+                        removeFromIndex(event.getId());
+                        addToIndex(event);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            page = page.next();
+        } while (slice.hasNext());
+        lock.writeLock().lock();
+        try {
+            updatedWhileBuilding = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Построен индекс {} опубликованных событий за {} мс.", events.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Метод позволяет проверить, может ли индекс выполнить поиск по переданным условиям. Фильтр доступности и
+     * сортировка по рейтингу зависят от часто изменяемых полей, поэтому такие запросы, как и запросы следующих
+     * наборов по курсору, выполняются в базе данных
+     *
+     * @param filterCollector объект, описывающий условия фильтрации
+     * @return true - если поиск можно выполнить по индексу
+     * @since 1.1
+     */
+    public boolean supports(FilterCollector filterCollector) {
+        return enabled && ready
+                && filterCollector.getText() != null && !filterCollector.getText().isBlank()
+                && !filterCollector.isOnlyAvailable()
+                && filterCollector.getCursor() == null
+                && (filterCollector.getSort() == null
+                || EventSortType.EVENT_DATE.toString().equals(filterCollector.getSort())
+                || EventSortType.VIEWS.toString().equals(filterCollector.getSort()));
+    }
+
+    /**
+     * Метод позволяет найти опубликованные события, в аннотации или подробном описании которых есть слова,
+     * начинающиеся с каждого слова текста поиска, и загрузить из базы данных только запрошенную страницу
+     *
+     * @param filterCollector объект, описывающий условия фильтрации
+     * @return список событий, подходящих под переданные условия
+     * @since 1.1
+     */
+    public List<Event> search(FilterCollector filterCollector) {
+        int[] ids;
+        lock.readLock().lock();
+        try {
+            ids = findIds(filterCollector);
+        } finally {
+            lock.readLock().unlock();
+        }
+        int from = Math.min(filterCollector.getFrom(), ids.length);
+        int to = Math.min(from + filterCollector.getSize(), ids.length);
+        if (from == to) {
+            return Collections.emptyList();
+        }
+        List<Integer> pageIds = Arrays.stream(ids, from, to).boxed().collect(Collectors.toList());
+        Map<Integer, Event> loaded = eventRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        List<Event> page = new ArrayList<>(pageIds.size());
+        for (Integer id : pageIds) {
+            Event event = loaded.get(id);
+            if (event != null && EventState.PUBLISHED.equals(event.getState())) {
+                page.add(event);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Метод позволяет добавить событие в индекс, обновить его или удалить, если событие больше не опубликовано.
+     * Если вызов выполняется в транзакции, индекс изменяется только после ее фиксации, чтобы откат транзакции не
+     * оставлял в индексе неподтвержденное состояние события
+     *
+     * @param event событие
+     * @since 1.1
+     */
+    public void update(Event event) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(event);
+                }
+            });
+        } else {
+            apply(event);
+        }
+    }
+
+    /**
+     * Метод позволяет применить зафиксированное состояние события к индексу
+     *
+     * @param event событие
+     * @since 1.1
+     */
+    private void apply(Event event) {
+        lock.writeLock().lock();
+        try {
+            if (updatedWhileBuilding != null) {
+                updatedWhileBuilding.add(event.getId());
+            }
+            removeFromIndex(event.getId());
+            if (EventState.PUBLISHED.equals(event.getState())) {
+                addToIndex(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Метод позволяет найти идентификаторы событий, подходящих под переданные условия, в порядке сортировки
+     *
+     * @param filterCollector объект, описывающий условия фильтрации
+     * @return идентификаторы событий
+     * @since 1.1
+     */
+    private int[] findIds(FilterCollector filterCollector) {
+        BitSet matches = null;
+        for (String token : tokenize(filterCollector.getText())) {
+            BitSet tokenMatches = new BitSet();
+            for (int[] ids : postings.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                for (int id : ids) {
+                    tokenMatches.set(id);
+                }
+            }
+            if (matches == null) {
+                matches = tokenMatches;
+            } else {
+                matches.and(tokenMatches);
+            }
+        }
+        if (matches == null) {
+            return new int[0];
+        }
+        Set<Integer> categories = filterCollector.getCategories() == null
+                || filterCollector.getCategories().length == 0
+                ? null : new HashSet<>(Arrays.asList(filterCollector.getCategories()));
+        long rangeStart;
+        long rangeEnd;
+        if (filterCollector.getRangeStart() != null && filterCollector.getRangeEnd() != null) {
+            if (!filterCollector.getRangeStart().isBlank() && !filterCollector.getRangeEnd().isBlank()) {
+                rangeStart = toEpochSecond(LocalDateTime.parse(filterCollector.getRangeStart(), EventMapper.FORMATTER));
+                rangeEnd = toEpochSecond(LocalDateTime.parse(filterCollector.getRangeEnd(), EventMapper.FORMATTER));
+            } else {
+                rangeStart = Long.MIN_VALUE;
+                rangeEnd = Long.MAX_VALUE;
+            }
+        } else {
+            rangeStart = toEpochSecond(LocalDateTime.now()) + 1;
+            rangeEnd = Long.MAX_VALUE;
+        }
+        int[] found = new int[matches.cardinality()];
+        int count = 0;
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            IndexedEvent event = events.get(id);
+            if ((categories == null || categories.contains(event.category))
+                    && (filterCollector.getPaid() == null || event.paid == filterCollector.getPaid())
+                    && event.eventDate >= rangeStart && event.eventDate <= rangeEnd) {
+                found[count++] = id;
+            }
+        }
+        int[] ids = Arrays.copyOf(found, count);
+        if (EventSortType.EVENT_DATE.toString().equals(filterCollector.getSort())) {
+            ids = Arrays.stream(ids).boxed()
+                    .sorted((a, b) -> events.get(a).eventDate == events.get(b).eventDate
+                            ? Integer.compare(b, a)
+                            : Long.compare(events.get(b).eventDate, events.get(a).eventDate))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return ids;
+    }
+
+    /**
+     * Метод позволяет добавить событие в индекс
+     *
+     * @param event событие
+     * @since 1.1
+     */
+    private void addToIndex(Event event) {
+        Set<String> tokens = new HashSet<>(tokenize(event.getAnnotation()));
+        tokens.addAll(tokenize(event.getDescription()));
+        events.put(event.getId(), new IndexedEvent(event.getCategory().getId(), event.isPaid(),
+                toEpochSecond(event.getEventDate()), tokens.toArray(new String[0])));
+        for (String token : tokens) {
+            int[] ids = postings.getOrDefault(token, new int[0]);
+            int position = Arrays.binarySearch(ids, event.getId());
+            if (position < 0) {
+                position = -position - 1;
+                int[] updated = new int[ids.length + 1];
+                System.arraycopy(ids, 0, updated, 0, position);
+                updated[position] = event.getId();
+                System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+                postings.put(token, updated);
+            }
+        }
+    }
+
+    /**
+     * Метод позволяет удалить событие из индекса
+     *
+     * @param eventId идентификатор события
+     * @since 1.1
+     */
+    private void removeFromIndex(int eventId) {
+        IndexedEvent removed = events.remove(eventId);
+        if (removed == null) {
+            return;
+        }
+        for (String token : removed.tokens) {
+            int[] ids = postings.get(token);
+            int position = ids == null ? -1 : Arrays.binarySearch(ids, eventId);
+            if (position < 0) {
+                continue;
+            }
+            if (ids.length == 1) {
+                postings.remove(token);
+                continue;
+            }
+            int[] updated = new int[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            postings.put(token, updated);
+        }
+    }
+
+    /**
+     * Метод позволяет разбить текст на слова в нижнем регистре
+     *
+     * @param text текст
+     * @return список слов
+     * @since 1.1
+     */
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Метод позволяет перевести дату и время в количество секунд с начала эпохи
+     *
+     * @param dateTime дата и время
+     * @return количество секунд
+     * @since 1.1
+     */
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Поля проиндексированного события, по которым выполняется фильтрация, и слова события
+     *
+     * @since 1.1
+     */
+    private static class IndexedEvent {
+        private final int category;
+        private final boolean paid;
+        private final long eventDate;
+        private final String[] tokens;
+
+        private IndexedEvent(int category, boolean paid, long eventDate, String[] tokens) {
+            this.category = category;
+            this.paid = paid;
+            this.eventDate = eventDate;
+            this.tokens = tokens;
+        }
+    }
+}
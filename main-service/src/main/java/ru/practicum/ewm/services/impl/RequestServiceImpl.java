@@ -4,7 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.mappers.RequestMapper;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.EventRequestStatusUpdateDto;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.EventRequestStatusUpdateResultDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.requests.ParticipationRequestDto;
 import ru.practicum.ewm.errors.Error;
 import ru.practicum.ewm.exceptions.BadRequestException;
@@ -24,9 +27,15 @@ import ru.practicum.ewm.services.EventService;
 import ru.practicum.ewm.services.RequestService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Класс сервиса для работы с запросами на участие в событиях, реализующий интерфейс {@link RequestService}
@@ -101,13 +110,14 @@ public class RequestServiceImpl implements RequestService {
      * @since 1.0
      */
     @Override
+    @Transactional
     public ParticipationRequestDto confirmEventRequest(int userId, int eventId, int reqId) {
         User user = findUserById(userId);
         Event event = getEventByIdAndInitiator(eventId, user);
         Request request = getRequestById(reqId);
         if (request.getEvent().equals(event)) {
             if (!event.isRequestModeration() || event.getParticipantLimit() == 0) {
-                request.setState(RequestState.CONFIRMED);
+                changeRequestState(request, RequestState.CONFIRMED);
                 log.info("Запрос id{} на участие в событии id{} подтверждён.", reqId, eventId);
                 return RequestMapper.toDto(requestRepository.save(request));
             }
@@ -118,7 +128,7 @@ public class RequestServiceImpl implements RequestService {
                         "Невозможно подтвердить запрос на участие в событии.",
                         String.format("Запрос id%d на участие в событии id%d уже подтвержден.", reqId, eventId));
             }
-            if (event.getParticipantLimit() == requestRepository.getConfirmedRequests(eventId)) {
+            if (event.getParticipantLimit() == event.getConfirmedRequests()) {
                 log.error("Превышен лимит запросов на участие в событии id{}.", eventId);
                 throw new ForbiddenException(List.of(
                         new Error("confirmedRequests", "имеется ограничение по количеству участников")
@@ -126,21 +136,16 @@ public class RequestServiceImpl implements RequestService {
                         "Невозможно подтвердить запрос на участие в событии.",
                         String.format("Превышен лимит запросов на участие в событии id%d.", eventId));
             }
-            if (event.getParticipantLimit() + 1 == requestRepository.getConfirmedRequests(eventId)) {
-                request.setState(RequestState.CONFIRMED);
-                List<Request> pendingRequests = requestRepository.findRequestsByEventAndState(event,
-                        RequestState.PENDING);
-                for (Request req : pendingRequests) {
-                    req.setState(RequestState.CANCELED);
-                }
-                requestRepository.saveAll(pendingRequests);
-                event.setIsAvailable(false);
-                eventRepository.save(event);
-            } else {
-                request.setState(RequestState.CONFIRMED);
+            changeRequestState(request, RequestState.CONFIRMED);
+            Request savedRequest = requestRepository.saveAndFlush(request);
+            if (eventRepository.markUnavailableIfFull(eventId) > 0) {
+                int canceled = requestRepository.updateRequestsStateByEventAndState(event, RequestState.PENDING,
+                        RequestState.CANCELED);
+                log.info("Лимит участников события id{} исчерпан, отменено {} запросов на участие.", eventId,
+                        canceled);
             }
             log.info("Запрос id{} на участие в событии id{} подтверждён.", reqId, eventId);
-            return RequestMapper.toDto(requestRepository.save(request));
+            return RequestMapper.toDto(savedRequest);
         } else {
             log.error("Запрос id{} на участие в событии id{} не найден. Проверьте соответствие запроса " +
                     "событию.", reqId, eventId);
@@ -163,6 +168,7 @@ public class RequestServiceImpl implements RequestService {
      * @since 1.0
      */
     @Override
+    @Transactional
     public ParticipationRequestDto rejectEventRequest(int userId, int eventId, int reqId) {
         User user = findUserById(userId);
         Event event = getEventByIdAndInitiator(eventId, user);
@@ -174,7 +180,7 @@ public class RequestServiceImpl implements RequestService {
                         "Невозможно отменить запрос на участие в событии.",
                         String.format("Запрос id%d на участие в событии id%d уже отменен.", reqId, eventId));
             }
-            request.setState(RequestState.REJECTED);
+            changeRequestState(request, RequestState.REJECTED);
             log.info("Запрос id{} на участие в событии id{} отменён.", reqId, eventId);
             return RequestMapper.toDto(requestRepository.save(request));
         } else {
@@ -187,6 +193,97 @@ public class RequestServiceImpl implements RequestService {
         }
     }
 
+    /**
+     * Метод позволяет авторизованному пользователю одной операцией подтвердить или отклонить несколько запросов на
+     * участие в его событии. Событие блокируется на время транзакции, свободные места проверяются один раз, а статусы
+     * запросов и количество подтвержденных запросов изменяются пакетными обновлениями
+     *
+     * @param userId    идентификатор организатора события
+     * @param eventId   идентификатор события
+     * @param updateDto идентификаторы запросов и новый статус
+     * @return результат обработки каждого запроса
+     * @since 1.1
+     */
+    @Override
+    @Transactional
+    public Collection<EventRequestStatusUpdateResultDto> updateEventRequestsStatus(
+            int userId, int eventId, EventRequestStatusUpdateDto updateDto) {
+        RequestState status = updateDto.getStatus();
+        if (status != RequestState.CONFIRMED && status != RequestState.REJECTED) {
+            log.error("Недопустимый статус {} для пакетного изменения запросов на участие в событии.", status);
+            throw new BadRequestException(List.of(
+                    new Error("status", "должно быть CONFIRMED или REJECTED").toString()),
+                    "Невозможно изменить статус запросов на участие в событии.",
+                    String.format("Недопустимый статус %s.", status));
+        }
+        User user = findUserById(userId);
+        Event event = eventRepository.findEventByIdAndInitiatorForUpdate(eventId, user)
+                .orElseThrow(() -> eventNotFound(eventId, user));
+        Map<Integer, Request> requests = requestRepository.findAllById(updateDto.getRequestIds()).stream()
+                .filter(request -> request.getEvent().getId() == eventId)
+                .collect(Collectors.toMap(Request::getId, Function.identity()));
+        Map<Integer, EventRequestStatusUpdateResultDto> results = new LinkedHashMap<>();
+        List<Integer> updatedIds = new ArrayList<>();
+        int freeSlots = event.getParticipantLimit() == 0
+                ? Integer.MAX_VALUE
+                : event.getParticipantLimit() - event.getConfirmedRequests();
+        int releasedSlots = 0;
+        for (Integer id : new LinkedHashSet<>(updateDto.getRequestIds())) {
+            Request request = requests.get(id);
+            if (request == null) {
+                results.put(id, new EventRequestStatusUpdateResultDto(id, false, null,
+                        String.format("Запрос не найден в событии id%d.", eventId)));
+                continue;
+            }
+            RequestState state = request.getState();
+            if (state == status) {
+                results.put(id, new EventRequestStatusUpdateResultDto(id, false, state.toString(),
+                        String.format("Запрос уже имеет статус %s.", state)));
+            } else if (state != RequestState.PENDING && state != RequestState.CONFIRMED) {
+                results.put(id, new EventRequestStatusUpdateResultDto(id, false, state.toString(),
+                        String.format("Невозможно изменить статус запроса %s.", state)));
+            } else if (status == RequestState.CONFIRMED && freeSlots <= 0) {
+                results.put(id, new EventRequestStatusUpdateResultDto(id, false, state.toString(),
+                        "Достигнуто максимально возможное количество участников."));
+            } else {
+                updatedIds.add(id);
+                results.put(id, new EventRequestStatusUpdateResultDto(id, true, status.toString(), null));
+                if (status == RequestState.CONFIRMED) {
+                    freeSlots--;
+                } else if (state == RequestState.CONFIRMED) {
+                    releasedSlots++;
+                }
+            }
+        }
+        if (updatedIds.isEmpty()) {
+            return results.values();
+        }
+        if (status == RequestState.CONFIRMED
+                && eventRepository.reserveParticipantSlots(eventId, updatedIds.size()) == 0) {
+            log.error("Превышен лимит запросов на участие в событии id{}.", eventId);
+            throw new ConflictException(List.of(
+                    new Error("confirmedRequests", "имеется ограничение по количеству участников").toString()),
+                    "Невозможно подтвердить запросы на участие в событии.",
+                    String.format("Превышен лимит запросов на участие в событии id%d.", eventId));
+        }
+        requestRepository.updateRequestsState(updatedIds, status);
+        if (status == RequestState.CONFIRMED) {
+            if (eventRepository.markUnavailableIfFull(eventId) > 0) {
+                int canceled = requestRepository.updateRequestsStateByEventAndState(event, RequestState.PENDING,
+                        RequestState.CANCELED);
+                log.info("Лимит участников события id{} исчерпан, отменено {} запросов на участие.", eventId,
+                        canceled);
+                results.values().stream()
+                        .filter(result -> RequestState.PENDING.toString().equals(result.getStatus()))
+                        .forEach(result -> result.setStatus(RequestState.CANCELED.toString()));
+            }
+        } else if (releasedSlots > 0) {
+            eventRepository.releaseParticipantSlots(eventId, releasedSlots);
+        }
+        log.info("Изменен статус {} запросов на участие в событии id{} на {}.", updatedIds.size(), eventId, status);
+        return results.values();
+    }
+
     /**
      * Метод позволяет авторизованному пользователю получить список Dto всех своих запросов на участие в чужих событиях
      *
@@ -210,6 +307,7 @@ public class RequestServiceImpl implements RequestService {
      * @since 1.0
      */
     @Override
+    @Transactional
     public ParticipationRequestDto addRequest(int userId, int eventId) {
         Event event = eventService.getEventById(eventId);
         if (!event.getIsAvailable()) {
@@ -246,10 +344,8 @@ public class RequestServiceImpl implements RequestService {
                     "Нельзя участвовать в неопубликованном событии.");
         }
         if (event.getParticipantLimit() != 0
-                && requestRepository.getConfirmedRequests(event.getId()) == event.getParticipantLimit()) {
+                && event.getConfirmedRequests() == event.getParticipantLimit()) {
             log.error("Достигнуто максимально возможное количество участников.");
-            event.setIsAvailable(false);
-            eventRepository.save(event);
             throw new ConflictException(List.of(
                     new Error("participantLimit", "превышено максимальное значение " +
                             event.getParticipantLimit()).toString()),
@@ -257,11 +353,12 @@ public class RequestServiceImpl implements RequestService {
                     "Достигнуто максимально возможное количество участников.");
         }
         Request request = new Request(LocalDateTime.now(), event, user, RequestState.PENDING);
-        if (!event.isRequestModeration()) {
-            request.setState(RequestState.CONFIRMED);
-        }
         request.setRequester(user);
         request.setEvent(event);
+        if (!event.isRequestModeration()) {
+            changeRequestState(request, RequestState.CONFIRMED);
+            eventRepository.markUnavailableIfFull(event.getId());
+        }
         Request savedRequest = requestRepository.save(request);
         log.info("Добавлен запрос id{} на участие в событии id{}.", savedRequest.getId(), event.getId());
         return RequestMapper.toDto(savedRequest);
@@ -276,6 +373,7 @@ public class RequestServiceImpl implements RequestService {
      * @since 1.0
      */
     @Override
+    @Transactional
     public ParticipationRequestDto cancelRequestByUser(int userId, int requestId) {
         User user = findUserById(userId);
         Optional<Request> request = requestRepository.findRequestByIdAndRequester(requestId, user);
@@ -287,7 +385,7 @@ public class RequestServiceImpl implements RequestService {
                         String.format("Невозможно отменить заявку id%d", requestId),
                         String.format("Невозможно отменить заявку со статусом %s.", request.get().getState()));
             }
-            request.get().setState(RequestState.CANCELED);
+            changeRequestState(request.get(), RequestState.CANCELED);
             Request savedRequest = requestRepository.save(request.get());
             log.info(String.format("Отменён запрос id%d на участие в событии id%d.", requestId,
                     request.get().getEvent().getId()));
@@ -302,6 +400,34 @@ public class RequestServiceImpl implements RequestService {
         }
     }
 
+    /**
+     * Метод позволяет изменить статус запроса на участие в событии. Если запрос становится подтвержденным, место
+     * участника занимается одним условным обновлением события, которое не позволяет превысить лимит участников при
+     * одновременных подтверждениях; если запрос перестает быть подтвержденным, место освобождается
+     *
+     * @param request запрос на участие в событии
+     * @param state   новый статус запроса
+     * @throws ConflictException если лимит участников события исчерпан
+     * @since 1.1
+     */
+    private void changeRequestState(Request request, RequestState state) {
+        boolean wasConfirmed = RequestState.CONFIRMED.equals(request.getState());
+        boolean isConfirmed = RequestState.CONFIRMED.equals(state);
+        Event event = request.getEvent();
+        if (isConfirmed && !wasConfirmed && eventRepository.reserveParticipantSlots(event.getId(), 1) == 0) {
+            log.error("Превышен лимит запросов на участие в событии id{}.", event.getId());
+            throw new ConflictException(List.of(
+                    new Error("participantLimit", "превышено максимальное значение " +
+                            event.getParticipantLimit()).toString()),
+                    String.format("Невозможно подтвердить запрос на участие в событии id%d.", event.getId()),
+                    "Достигнуто максимально возможное количество участников.");
+        }
+        if (wasConfirmed && !isConfirmed) {
+            eventRepository.releaseParticipantSlots(event.getId(), 1);
+        }
+        request.setState(state);
+    }
+
     /**
      * Метод позволяет получить пользователя по идентификатору из репозитория
      *
@@ -323,10 +449,22 @@ public class RequestServiceImpl implements RequestService {
      */
     private Event getEventByIdAndInitiator(int eventId, User user) {
         return eventRepository.findEventByIdAndInitiator(eventId, user).orElseThrow(() ->
-                new NotFoundException(List.of(
-                        new Error("eventId", "неверное значение " + eventId).toString()),
-                        "Невозможно получить событие.",
-                        String.format("Событие id%d не найдено у пользователя id%d.", eventId, user.getId())));
+                eventNotFound(eventId, user));
+    }
+
+    /**
+     * Метод позволяет создать исключение об отсутствии события у организатора
+     *
+     * @param eventId идентификатор события
+     * @param user    организатор события
+     * @return исключение об отсутствии события
+     * @since 1.1
+     */
+    private NotFoundException eventNotFound(int eventId, User user) {
+        return new NotFoundException(List.of(
+                new Error("eventId", "неверное значение " + eventId).toString()),
+                "Невозможно получить событие.",
+                String.format("Событие id%d не найдено у пользователя id%d.", eventId, user.getId()));
     }
 
     /**
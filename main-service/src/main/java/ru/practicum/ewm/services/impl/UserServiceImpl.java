@@ -9,14 +9,18 @@ import org.springframework.stereotype.Service;
 import ru.practicum.ewm.controllers.apis.admins.dtos.mappers.UserMapper;
 import ru.practicum.ewm.controllers.apis.admins.dtos.users.UserDto;
 import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.users.NewUserRequest;
+import ru.practicum.ewm.controllers.apis.authorizedusers.dtos.users.UserShortDto;
 import ru.practicum.ewm.errors.Error;
 import ru.practicum.ewm.exceptions.ConflictException;
+import ru.practicum.ewm.models.CursorPage;
 import ru.practicum.ewm.models.User;
+import ru.practicum.ewm.models.UserCursor;
 import ru.practicum.ewm.repositories.UserRepository;
 import ru.practicum.ewm.services.UserService;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Класс для работы с пользователями, реализующий интерфейс {@link UserService}
@@ -100,4 +104,32 @@ public class UserServiceImpl implements UserService {
         log.info("Запрошен пользователь id{}.", userId);
         return userRepository.findById(userId).get();
     }
+
+    /**
+     * Метод позволяет получить краткую информацию об организаторах событий с наибольшим рейтингом в порядке
+     * убывания рейтинга. Следующий набор начинается после рейтинга и идентификатора из курсора, поэтому выборка
+     * идет по индексу без пропуска предыдущих строк, а изменение рейтинга последнего пользователя между запросами не
+     * сдвигает границу набора
+     *
+     * @param cursor курсор предыдущего набора (null - первый набор)
+     * @param size   количество пользователей в наборе
+     * @return краткая информация о пользователях и курсор следующего набора
+     * @since 1.1
+     */
+    @Override
+    public CursorPage<UserShortDto> getTopRatedUsers(String cursor, int size) {
+        float afterRating = Float.MAX_VALUE;
+        int afterId = Integer.MAX_VALUE;
+        if (cursor != null) {
+            UserCursor after = UserCursor.decode(cursor);
+            afterRating = after.getRating();
+            afterId = after.getId();
+        }
+        log.info("Запрошен рейтинг пользователей после пользователя id{} в размере {}.", afterId, size);
+        List<User> users = userRepository.getTopRatedUsers(afterRating, afterId, size);
+        String nextCursor = users.size() < size ? null : UserCursor.after(users.get(users.size() - 1)).encode();
+        return new CursorPage<>(users.stream()
+                .map(UserMapper::toShortDto)
+                .collect(Collectors.toList()), nextCursor);
+    }
 }
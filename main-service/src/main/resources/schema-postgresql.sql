@@ -0,0 +1,53 @@
+ALTER TABLE events
+    ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+UPDATE events
+SET search_vector = to_tsvector('pg_catalog.russian',
+                                coalesce(title, '') || ' ' || coalesce(annotation, '') || ' ' ||
+                                coalesce(description, ''))
+WHERE search_vector IS NULL;
+
+DROP TRIGGER IF EXISTS events_search_vector_update ON events;
+
+CREATE TRIGGER events_search_vector_update
+    BEFORE INSERT OR UPDATE OF title, annotation, description
+    ON events
+    FOR EACH ROW
+EXECUTE PROCEDURE tsvector_update_trigger(search_vector, 'pg_catalog.russian', title, annotation, description);
+
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_events_annotation_trgm ON events USING GIN (lower(annotation) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_events_description_trgm ON events USING GIN (lower(description) gin_trgm_ops);
+
+DELETE
+FROM likes
+WHERE NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uq_likes_user_event')
+  AND id NOT IN (SELECT MAX(id) FROM likes GROUP BY user_id, event_id);
+
+UPDATE events
+SET likes    = (SELECT count(l.id) FROM likes l WHERE l.event_id = events.id AND l.is_like = true),
+    dislikes = (SELECT count(l.id) FROM likes l WHERE l.event_id = events.id AND l.is_like = false)
+WHERE NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uq_likes_user_event');
+
+UPDATE events
+SET rating = CASE
+                 WHEN likes > 0 AND dislikes = 0 THEN 5
+                 WHEN likes = 0 OR likes = dislikes THEN 0
+                 ELSE cast(likes AS real) / dislikes END
+WHERE NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uq_likes_user_event');
+
+UPDATE users
+SET rating_sum   = (SELECT coalesce(sum(e.rating), 0)
+                    FROM events e
+                    WHERE e.initiator = users.id AND (e.likes > 0 OR e.dislikes > 0)),
+    rated_events = (SELECT count(e.id) FROM events e WHERE e.initiator = users.id AND (e.likes > 0 OR e.dislikes > 0)),
+    rating       = coalesce((SELECT avg(e.rating)
+                             FROM events e
+                             WHERE e.initiator = users.id AND (e.likes > 0 OR e.dislikes > 0)), 0)
+WHERE NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uq_likes_user_event');
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_likes_user_event ON likes (user_id, event_id);
@@ -1,13 +1,21 @@
 CREATE TABLE IF NOT EXISTS users
 (
-    id     BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    name   VARCHAR                                 NOT NULL,
-    email  VARCHAR                                 NOT NULL,
-    rating float4 DEFAULT (0.0),
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    name         VARCHAR                                 NOT NULL,
+    email        VARCHAR                                 NOT NULL,
+    rating       float4 DEFAULT (0.0),
+    rating_sum   float8 DEFAULT (0.0),
+    rated_events int    DEFAULT (0),
     CONSTRAINT pk_user PRIMARY KEY (id),
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS rating_sum float8 DEFAULT (0.0);
+
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS rated_events int DEFAULT (0);
+
 CREATE TABLE IF NOT EXISTS categories
 (
     id   BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -35,11 +43,15 @@ CREATE TABLE IF NOT EXISTS events
     likes              BIGINT  DEFAULT (0),
     dislikes           BIGINT  DEFAULT (0),
     rating             float4  DEFAULT (0.0),
+    confirmed_requests int     DEFAULT (0)                     NOT NULL,
     CONSTRAINT pk_event PRIMARY KEY (id),
     FOREIGN KEY (category) REFERENCES categories (id) ON DELETE CASCADE,
     FOREIGN KEY (initiator) REFERENCES users (id) ON DELETE CASCADE
 );
 
+ALTER TABLE events
+    ADD COLUMN IF NOT EXISTS confirmed_requests int;
+
 CREATE TABLE IF NOT EXISTS compilations
 (
     id     BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -70,12 +82,33 @@ CREATE TABLE IF NOT EXISTS requests
     FOREIGN KEY (event) REFERENCES events (id) ON DELETE CASCADE
 );
 
+UPDATE events
+SET confirmed_requests = (SELECT count(r.id) FROM requests r WHERE r.event = events.id AND r.state = 'CONFIRMED')
+WHERE confirmed_requests IS NULL;
+
+ALTER TABLE events
+    ALTER COLUMN confirmed_requests SET DEFAULT (0);
+
+ALTER TABLE events
+    ALTER COLUMN confirmed_requests SET NOT NULL;
+
 CREATE TABLE IF NOT EXISTS likes
 (
     id       BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     user_id  INT                                     NOT NULL,
     event_id INT                                     NOT NULL,
     is_like  BOOLEAN                                 NOT NULL,
+    CONSTRAINT uq_likes_user_event UNIQUE (user_id, event_id),
     FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
     FOREIGN KEY (event_id) REFERENCES events (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_events_state_rating ON events (state, rating DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_events_category_state_rating ON events (category, state, rating DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_users_rating ON users (rating DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_events_event_date ON events (event_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_events_initiator ON events (initiator, id);
\ No newline at end of file
@@ -0,0 +1,173 @@
+package ru.practicum.ewm.repositories;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.models.Category;
+import ru.practicum.ewm.models.Event;
+import ru.practicum.ewm.models.EventState;
+import ru.practicum.ewm.models.FilterCollector;
+import ru.practicum.ewm.models.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тест количества SQL запросов при получении страниц событий: категории и организаторы событий должны загружаться
+ * в том же запросе, что и сами события, независимо от количества разных категорий и организаторов на странице
+ *
+ * @since 1.1
+ */
+@SpringBootTest(properties = {
+        "ewm-stats.url=http://localhost:9090",
+        "requests.reconciliation.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class EventRepositoryStatementCountTest {
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    private TransactionTemplate transactionTemplate;
+
+    private User initiator;
+
+    private final List<Category> categories = new ArrayList<>();
+
+    private final List<Integer> eventIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        String suffix = Long.toString(System.nanoTime());
+        initiator = userRepository.save(new User("initiator" + suffix + "@statements.test", "initiator"));
+        categories.clear();
+        eventIds.clear();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Category category = categoryRepository.save(new Category("statements" + i + "-" + suffix));
+            categories.add(category);
+            eventIds.add(saveEvent(category, initiator, i).getId());
+            User otherInitiator = userRepository.save(new User("other" + i + "-" + suffix + "@statements.test",
+                    "other" + i));
+            eventIds.add(saveEvent(category, otherInitiator, i).getId());
+        }
+        for (int i = 2; i < PAGE_SIZE; i++) {
+            User otherInitiator = userRepository.save(new User("category" + i + "-" + suffix + "@statements.test",
+                    "category" + i));
+            eventIds.add(saveEvent(categories.get(0), otherInitiator, i).getId());
+        }
+    }
+
+    @Test
+    void findEventsByInitiatorUsesOneStatement() {
+        assertStatements(() -> eventRepository.findEventsByInitiator(initiator, PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void findEventsByInitiatorAfterUsesOneStatement() {
+        assertStatements(() -> eventRepository.findEventsByInitiatorAfter(initiator, 0,
+                PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void findEventsByStateUsesOneStatement() {
+        assertStatements(() -> eventRepository.findEventsByState(EventState.PUBLISHED,
+                PageRequest.of(0, PAGE_SIZE)).getContent());
+    }
+
+    @Test
+    void findAllByIdUsesOneStatement() {
+        assertStatements(() -> eventRepository.findAllById(eventIds.subList(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void getTopRatedEventsUsesOneStatement() {
+        assertStatements(() -> eventRepository.getTopRatedEvents(EventState.PUBLISHED, Float.MAX_VALUE,
+                Integer.MAX_VALUE, PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void getTopRatedEventsByCategoryUsesOneStatement() {
+        assertStatements(() -> eventRepository.getTopRatedEventsByCategory(categories.get(0).getId(),
+                EventState.PUBLISHED, Float.MAX_VALUE, Integer.MAX_VALUE, PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    @Test
+    void getAllEventsUsesOneStatement() {
+        FilterCollector filterCollector = new FilterCollector();
+        filterCollector.setCategories(categories.stream().map(Category::getId).toArray(Integer[]::new));
+        filterCollector.setPaid(false);
+        filterCollector.setSize(PAGE_SIZE);
+        assertStatements(() -> eventRepository.getAllEvents(filterCollector, null));
+    }
+
+    @Test
+    void searchEventsToAdminUsesOneStatement() {
+        Integer[] categoryIds = categories.stream().map(Category::getId).toArray(Integer[]::new);
+        assertStatements(() -> eventRepository.searchEventsToAdmin(null, new EventState[]{EventState.PUBLISHED},
+                categoryIds, null, null, 0, PAGE_SIZE, null));
+    }
+
+    /**
+     * Метод позволяет проверить, что страница событий вместе с категориями и организаторами получена одним
+     * SQL запросом
+     *
+     * @param listing получение страницы событий
+     * @since 1.1
+     */
+    private void assertStatements(Supplier<Collection<Event>> listing) {
+        Integer size = transactionTemplate.execute(status -> {
+            statistics.clear();
+            Collection<Event> events = listing.get();
+            for (Event event : events) {
+                event.getCategory().getName();
+                event.getInitiator().getName();
+            }
+            assertEquals(1, statistics.getPrepareStatementCount());
+            return events.size();
+        });
+        assertEquals(PAGE_SIZE, size);
+    }
+
+    private Event saveEvent(Category category, User initiator, int days) {
+        Event event = new Event("annotation", "description", LocalDateTime.now().plusDays(days + 1), false,
+                0, false, "title");
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setState(EventState.PUBLISHED);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setPublishedOn(LocalDateTime.now());
+        event.setIsAvailable(true);
+        return eventRepository.save(event);
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.ewm.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.ewm.exceptions.MainException;
+import ru.practicum.ewm.models.Category;
+import ru.practicum.ewm.models.Event;
+import ru.practicum.ewm.models.EventState;
+import ru.practicum.ewm.models.Request;
+import ru.practicum.ewm.models.RequestState;
+import ru.practicum.ewm.models.User;
+import ru.practicum.ewm.repositories.CategoryRepository;
+import ru.practicum.ewm.repositories.EventRepository;
+import ru.practicum.ewm.repositories.RequestRepository;
+import ru.practicum.ewm.repositories.UserRepository;
+import ru.practicum.ewm.services.RequestService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный тест одновременного подтверждения запросов на участие в событии с ограниченным количеством
+ * участников
+ *
+ * @since 1.1
+ */
+@SpringBootTest(properties = {
+        "ewm-stats.url=http://localhost:9090",
+        "requests.reconciliation.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:ewm-main-service;LOCK_TIMEOUT=10000"
+})
+@ActiveProfiles("test")
+class RequestServiceImplConcurrencyTest {
+    private static final int PARTICIPANT_LIMIT = 5;
+    private static final int REQUESTS = 40;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Test
+    void parallelConfirmationsDoNotExceedParticipantLimit() throws Exception {
+        User initiator = userRepository.save(new User("initiator@concurrency.test", "initiator"));
+        Category category = categoryRepository.save(new Category("concurrency"));
+        Event event = new Event("annotation", "description", LocalDateTime.now().plusDays(1), false,
+                PARTICIPANT_LIMIT, true, "title");
+        event.setCategory(category);
+        event.setInitiator(initiator);
+        event.setState(EventState.PUBLISHED);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setPublishedOn(LocalDateTime.now());
+        event.setIsAvailable(true);
+        Event savedEvent = eventRepository.save(event);
+        List<Integer> requestIds = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            User requester = userRepository.save(new User("requester" + i + "@concurrency.test", "requester" + i));
+            requestIds.add(requestRepository.save(new Request(LocalDateTime.now(), savedEvent, requester,
+                    RequestState.PENDING)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Integer requestId : requestIds) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    requestService.confirmEventRequest(initiator.getId(), savedEvent.getId(), requestId);
+                    confirmed.incrementAndGet();
+                } catch (MainException e) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(PARTICIPANT_LIMIT, confirmed.get());
+        assertEquals(REQUESTS - PARTICIPANT_LIMIT, refused.get());
+        assertEquals(PARTICIPANT_LIMIT,
+                requestRepository.findRequestsByEventAndState(savedEvent, RequestState.CONFIRMED).size());
+        assertEquals(PARTICIPANT_LIMIT, eventRepository.findById(savedEvent.getId()).orElseThrow()
+                .getConfirmedRequests());
+    }
+}
@@ -1,13 +1,18 @@
 package ru.practicum.stat.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.stat.exceptions.BatchTooLargeException;
 import ru.practicum.stat.models.dto.EndPointHitDto;
+import ru.practicum.stat.models.dto.EndPointHitsResultDto;
 import ru.practicum.stat.models.dto.ViewStatsDto;
 import ru.practicum.stat.services.StatService;
 
+import javax.validation.Valid;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Контроллер для работы со статистикой просмотров эндпоинтов
@@ -24,9 +29,17 @@ public class StatController {
      */
     private final StatService statService;
 
+    /**
+     * Максимальное количество записей в пакете, принимаемом одним запросом
+     *
+     * @since 1.1
+     */
+    private final int maxBatchSize;
+
     @Autowired
-    public StatController(StatService statService) {
+    public StatController(StatService statService, @Value("${stats.hits.max-batch-size:1000}") int maxBatchSize) {
         this.statService = statService;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -37,10 +50,27 @@ public class StatController {
      * @since 1.0
      */
     @PostMapping("/hit")
-    public EndPointHitDto addEndPointHit(@RequestBody EndPointHitDto dto) {
+    public EndPointHitDto addEndPointHit(@Valid @RequestBody EndPointHitDto dto) {
         return statService.addEndPointHit(dto);
     }
 
+    /**
+     * Метод позволяет добавить пакет записей о просмотрах эндпоинтов одним запросом. Пакет, содержащий хотя бы одну
+     * неверно заполненную запись или больше записей, чем разрешено настройками, отклоняется целиком до сохранения
+     *
+     * @param dtos Dto записей данных о просмотрах эндпоинтов
+     * @return подтверждение сохранения пакета записей
+     * @throws BatchTooLargeException если пакет содержит больше записей, чем разрешено настройками
+     * @since 1.1
+     */
+    @PostMapping("/hits")
+    public EndPointHitsResultDto addEndPointHits(@RequestBody List<@Valid EndPointHitDto> dtos) {
+        if (dtos.size() > maxBatchSize) {
+            throw new BatchTooLargeException(dtos.size(), maxBatchSize);
+        }
+        return statService.addEndPointHits(dtos);
+    }
+
     /**
      * Метод позволяет получить статистику просмотров определенных эндпоинтов, подходящую под указанные параметры
      *
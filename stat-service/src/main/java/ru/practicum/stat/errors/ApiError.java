@@ -0,0 +1,62 @@
+package ru.practicum.stat.errors;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Класс, подробно описыващий ошибку, возникшую в процессе работы сервиса статистики
+ *
+ * @since 1.1
+ */
+@Getter
+@Setter
+public class ApiError {
+    /**
+     * Список возникших программных ошибок
+     *
+     * @since 1.1
+     */
+    private List<String> errors;
+
+    /**
+     * Сообщение об ошибке
+     *
+     * @since 1.1
+     */
+    private String message;
+
+    /**
+     * Причина возникновения ошибки
+     *
+     * @since 1.1
+     */
+    private String reason;
+
+    /**
+     * HTTP код ошибки
+     *
+     * @since 1.1
+     */
+    private String status;
+
+    /**
+     * Дата и время возникновения ошибки в формате "yyyy-MM-dd HH:mm:ss"
+     *
+     * @since 1.1
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime timestamp;
+
+    public ApiError(List<String> errors, String message, String reason, HttpStatus status) {
+        this.errors = errors;
+        this.message = message;
+        this.reason = reason;
+        this.status = status.name();
+        this.timestamp = LocalDateTime.now();
+    }
+}
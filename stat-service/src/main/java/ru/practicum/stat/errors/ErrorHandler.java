@@ -0,0 +1,93 @@
+package ru.practicum.stat.errors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.stat.exceptions.BatchTooLargeException;
+
+import javax.validation.ConstraintViolationException;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Класс для перехватывания исключений сервиса статистики и их обработки
+ *
+ * @since 1.1
+ */
+@RestControllerAdvice
+@Slf4j
+public class ErrorHandler {
+    /**
+     * Метод позволяет перехватить MethodArgumentNotValidException, сформировать и передать клиенту информацию о
+     * возникшей ошибке
+     *
+     * @param e перехваченное исключение
+     * @return подробная информация о возникшей ошибке
+     * @since 1.1
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleBadRequestException(final MethodArgumentNotValidException e) {
+        log.error("Ошибка: {}", e.getMessage());
+        return new ApiError(e.getBindingResult().getFieldErrors().stream()
+                .map(error -> String.format("Поле: %s. Ошибка: %s.", error.getField(), error.getDefaultMessage()))
+                .collect(Collectors.toList()),
+                "Ошибка валидации входных данных.", "Неверно заполнены поля.", HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Метод позволяет перехватить ConstraintViolationException, сформировать и передать клиенту информацию о
+     * возникшей ошибке. Путь поля содержит индекс записи в пакете
+     *
+     * @param e перехваченное исключение
+     * @return подробная информация о возникшей ошибке
+     * @since 1.1
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleBadRequestException(final ConstraintViolationException e) {
+        log.error("Ошибка: {}", e.getMessage());
+        return new ApiError(e.getConstraintViolations().stream()
+                .map(violation -> String.format("Поле: %s. Ошибка: %s.", violation.getPropertyPath(),
+                        violation.getMessage()))
+                .sorted()
+                .collect(Collectors.toList()),
+                "Ошибка валидации входных данных.", "Неверно заполнены поля.", HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Метод позволяет перехватить DateTimeParseException, сформировать и передать клиенту информацию о возникшей
+     * ошибке
+     *
+     * @param e перехваченное исключение
+     * @return подробная информация о возникшей ошибке
+     * @since 1.1
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleBadRequestException(final DateTimeParseException e) {
+        log.error("Ошибка: {}", e.getMessage());
+        return new ApiError(List.of(String.format("Неверное значение даты и времени: %s.", e.getParsedString())),
+                "Ошибка валидации входных данных.", "Неверный формат даты и времени.", HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Метод позволяет перехватить BatchTooLargeException, сформировать и передать клиенту информацию о возникшей
+     * ошибке
+     *
+     * @param e перехваченное исключение
+     * @return подробная информация о возникшей ошибке
+     * @since 1.1
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public ApiError handleBatchTooLargeException(final BatchTooLargeException e) {
+        log.error("Ошибка: {}", e.getMessage());
+        return new ApiError(List.of(String.format("Поле: hits. Ошибка: не должно содержать больше %d записей.",
+                e.getMaxSize())), e.getMessage(), "Слишком большой пакет записей.", HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.stat.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Исключение, выбрасываемое, если пакет записей о просмотрах эндпоинтов больше максимального размера
+ *
+ * @since 1.1
+ */
+@Getter
+public class BatchTooLargeException extends RuntimeException {
+    /**
+     * Количество записей в пакете
+     *
+     * @since 1.1
+     */
+    private final int size;
+
+    /**
+     * Максимальное количество записей в пакете
+     *
+     * @since 1.1
+     */
+    private final int maxSize;
+
+    public BatchTooLargeException(int size, int maxSize) {
+        super(String.format("Пакет содержит %d записей при максимуме %d.", size, maxSize));
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,199 @@
+package ru.practicum.stat.filters;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Фильтр, распаковывающий тела HTTP запросов, сжатые алгоритмом gzip (заголовок Content-Encoding: gzip). Размер
+ * распакованного тела ограничен, поврежденные данные отклоняются с кодом 400, а слишком большие - с кодом 413
+ *
+ * @since 1.1
+ */
+@Component
+@Slf4j
+public class GzipRequestFilter extends OncePerRequestFilter {
+    /**
+     * Максимальный размер распакованного тела запроса в байтах
+     *
+     * @since 1.1
+     */
+    private final long maxDecompressedBytes;
+
+    @Autowired
+    public GzipRequestFilter(@Value("${stats.gzip.max-decompressed-bytes:10485760}") long maxDecompressedBytes) {
+        this.maxDecompressedBytes = maxDecompressedBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        byte[] body;
+        try {
+            body = decompress(request.getInputStream());
+        } catch (ZipException | EOFException e) {
+            log.warn("Получено поврежденное сжатое тело запроса {}: {}", request.getRequestURI(), e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Некорректные данные gzip.");
+            return;
+        } catch (BodyTooLargeException e) {
+            log.warn("Распакованное тело запроса {} больше {} байт.", request.getRequestURI(), maxDecompressedBytes);
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "Распакованное тело запроса слишком большое.");
+            return;
+        }
+        filterChain.doFilter(new GzipRequestWrapper(request, body), response);
+    }
+
+    /**
+     * Метод позволяет распаковать тело запроса, прекращая чтение при превышении максимального размера
+     *
+     * @param compressed поток сжатого тела запроса
+     * @return распакованное тело запроса
+     * @throws IOException           если данные gzip повреждены или не удалось прочитать запрос
+     * @throws BodyTooLargeException если распакованное тело больше максимального размера
+     * @since 1.1
+     */
+    private byte[] decompress(InputStream compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(compressed)) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = gzip.read(buffer)) != -1) {
+                total += read;
+                if (total > maxDecompressedBytes) {
+                    throw new BodyTooLargeException();
+                }
+                body.write(buffer, 0, read);
+            }
+            return body.toByteArray();
+        }
+    }
+
+    /**
+     * Исключение, выбрасываемое, если распакованное тело запроса больше максимального размера
+     *
+     * @since 1.1
+     */
+    private static class BodyTooLargeException extends IOException {
+    }
+
+    /**
+     * Обертка HTTP запроса, отдающая распакованное тело запроса
+     *
+     * @since 1.1
+     */
+    private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+        /**
+         * Распакованное тело запроса
+         *
+         * @since 1.1
+         */
+        private final byte[] body;
+
+        /**
+         * Поток распакованного тела запроса
+         *
+         * @since 1.1
+         */
+        private final ByteArrayInputStream bodyStream;
+
+        GzipRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+            this.bodyStream = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return bodyStream.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return bodyStream.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return bodyStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(bodyStream, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    ? Collections.emptyEnumeration()
+                    : super.getHeaders(name);
+        }
+    }
+}
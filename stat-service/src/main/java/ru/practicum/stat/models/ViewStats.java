@@ -44,4 +44,8 @@ public class ViewStats {
         this.uri = uri;
         this.hits = hits;
     }
+
+    public ViewStats(String app, String uri, Long hits) {
+        this(app, uri, hits.intValue());
+    }
 }
@@ -4,6 +4,11 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
 /**
  * Класс, описывающий Dto сущности записи данных о просмотрах эндпоинтов
  *
@@ -24,6 +29,8 @@ public class EndPointHitDto {
      *
      * @since 1.0
      */
+    @NotBlank(message = "не должно быть пустым или состоять из пробелов")
+    @Size(max = 500, message = "не должно содержать больше 500 символов")
     private String app;
 
     /**
@@ -31,6 +38,8 @@ public class EndPointHitDto {
      *
      * @since 1.0
      */
+    @NotBlank(message = "не должно быть пустым или состоять из пробелов")
+    @Size(max = 500, message = "не должно содержать больше 500 символов")
     private String uri;
 
     /**
@@ -38,6 +47,8 @@ public class EndPointHitDto {
      *
      * @since 1.0
      */
+    @NotBlank(message = "не должно быть пустым или состоять из пробелов")
+    @Size(max = 50, message = "не должно содержать больше 50 символов")
     private String ip;
 
     /**
@@ -45,6 +56,9 @@ public class EndPointHitDto {
      *
      * @since 1.0
      */
+    @NotNull(message = "должно быть заполнено")
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}",
+            message = "должно быть в формате yyyy-MM-dd HH:mm:ss")
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private String timestamp;
 
@@ -0,0 +1,22 @@
+package ru.practicum.stat.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Класс, описывающий Dto подтверждения сохранения пакета записей данных о просмотрах эндпоинтов
+ *
+ * @since 1.1
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class EndPointHitsResultDto {
+    /**
+     * Количество сохраненных записей пакета
+     *
+     * @since 1.1
+     */
+    private Integer saved;
+}
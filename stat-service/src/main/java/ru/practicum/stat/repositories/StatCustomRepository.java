@@ -1,7 +1,9 @@
 package ru.practicum.stat.repositories;
 
 import ru.practicum.stat.models.EndPointHit;
+import ru.practicum.stat.models.ViewStats;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -11,14 +13,22 @@ import java.util.List;
  */
 public interface StatCustomRepository {
     /**
-     * Метод позволяет получить список записей данных о просмотрах эндпоинтов
+     * Метод позволяет одним запросом получить количество просмотров эндпоинтов, сгруппированное по сервису и URI
      *
      * @param start  дата и время, не раньше которых должна быть добавлена информация о просмотрах эндпоинтов
-     * @param end    дата и время, не раньше которых должна быть добавлена информация о просмотрах эндпоинтов
-     * @param uri    URI, для которых надо предоставить статистику просмотров
-     * @param unique выполнять поиск только для уникальных просмотров (по уникальным Ip-адресам)
-     * @return список записей данных о просмотрах эндпоинтов
-     * @since 1.0
+     * @param end    дата и время, не позже которых должна быть добавлена информация о просмотрах эндпоинтов
+     * @param uris   список URI, для которых надо предоставить статистику просмотров (если не указан - для всех URI)
+     * @param unique считать только уникальные просмотры (по уникальным Ip-адресам)
+     * @return статистика просмотров эндпоинтов
+     * @since 1.1
      */
-    List<EndPointHit> findAllByUri(String start, String end, String uri, Boolean unique);
+    List<ViewStats> getStats(String start, String end, String[] uris, boolean unique);
+
+    /**
+     * Метод позволяет сохранить коллекцию записей данных о просмотрах эндпоинтов пакетной вставкой
+     *
+     * @param endPointHits записи данных о просмотрах эндпоинтов
+     * @since 1.1
+     */
+    void saveAllInBatch(Collection<EndPointHit> endPointHits);
 }
@@ -1,19 +1,24 @@
 package ru.practicum.stat.repositories.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.stat.models.EndPointHit;
+import ru.practicum.stat.models.ViewStats;
 import ru.practicum.stat.repositories.StatCustomRepository;
 
 import javax.persistence.EntityManager;
-import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -37,50 +42,80 @@ public class StatCustomRepositoryImpl implements StatCustomRepository {
      */
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * Шаблон для выполнения JDBC запросов
+     *
+     * @since 1.1
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Константа запроса для вставки записи данных о просмотрах эндпоинтов
+     *
+     * @since 1.1
+     */
+    private static final String INSERT_HIT = "insert into stats (app, uri, ip, timestamp) values (?, ?, ?, ?)";
+
+    /**
+     * Константа максимального количества записей в одном JDBC пакете
+     *
+     * @since 1.1
+     */
+    private static final int JDBC_BATCH_SIZE = 1000;
+
     @Autowired
-    public StatCustomRepositoryImpl(EntityManager entityManager) {
+    public StatCustomRepositoryImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate) {
         this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
-     * Метод позволяет получить список записей данных о просмотрах эндпоинтов
+     * Метод позволяет одним запросом получить количество просмотров эндпоинтов, сгруппированное по сервису и URI
      *
      * @param start  дата и время, не раньше которых должна быть добавлена информация о просмотрах эндпоинтов
-     * @param end    дата и время, не раньше которых должна быть добавлена информация о просмотрах эндпоинтов
-     * @param uri    URI, для которых надо предоставить статистику просмотров
-     * @param unique выполнять поиск только для уникальных просмотров (по уникальным Ip-адресам)
-     * @return список записей данных о просмотрах эндпоинтов
-     * @since 1.0
+     * @param end    дата и время, не позже которых должна быть добавлена информация о просмотрах эндпоинтов
+     * @param uris   список URI, для которых надо предоставить статистику просмотров (если не указан - для всех URI)
+     * @param unique считать только уникальные просмотры (по уникальным Ip-адресам)
+     * @return статистика просмотров эндпоинтов
+     * @since 1.1
      */
     @Override
-    public List<EndPointHit> findAllByUri(String start, String end, String uri, Boolean unique) {
+    public List<ViewStats> getStats(String start, String end, String[] uris, boolean unique) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<EndPointHit> query = cb.createQuery(EndPointHit.class);
+        CriteriaQuery<ViewStats> query = cb.createQuery(ViewStats.class);
         Root<EndPointHit> endpointRoot = query.from(EndPointHit.class);
         List<Predicate> filterPredicates = new ArrayList<>();
         filterPredicates.add(cb.between(endpointRoot.get("timestamp"), LocalDateTime.parse(start,
                 StatCustomRepositoryImpl.FORMATTER), LocalDateTime.parse(end, StatCustomRepositoryImpl.FORMATTER)));
-        if (uri != null && !uri.isEmpty() && !uri.isBlank()) {
-            filterPredicates.add(cb.equal(endpointRoot.get("uri"), uri));
+        if (uris != null && uris.length != 0) {
+            filterPredicates.add(endpointRoot.get("uri").in((Object[]) uris));
         }
-        if (unique) {
-            CriteriaBuilder uq = entityManager.getCriteriaBuilder();
-            CriteriaQuery<String> uqQuery = uq.createQuery(String.class);
-            Root<EndPointHit> uqRoot = uqQuery.from(EndPointHit.class);
-            uqQuery.select(uqRoot.get("ip")).distinct(true).where(cb.equal(uqRoot.get("uri"), uri));
-            TypedQuery<String> integerTypedQuery = entityManager.createQuery(uqQuery);
-            List<String> uniqueIp = integerTypedQuery.getResultList();
-            List<EndPointHit> uqResult = new ArrayList<>();
-            for (String uqIp : uniqueIp) {
-                query.select(endpointRoot).where(cb.and(filterPredicates.toArray(new Predicate[]{})),
-                        cb.and(cb.equal(endpointRoot.get("ip"), uqIp)));
-                uqResult.add(entityManager.createQuery(query).getResultList().get(0));
-            }
-            return uqResult;
-        } else {
-            query.select(endpointRoot).where(cb.and(filterPredicates.toArray(new Predicate[]{})));
+        Expression<Long> hits = unique ? cb.countDistinct(endpointRoot.get("ip")) : cb.count(endpointRoot);
+        query.select(cb.construct(ViewStats.class, endpointRoot.get("app"), endpointRoot.get("uri"), hits))
+                .where(cb.and(filterPredicates.toArray(new Predicate[]{})))
+                .groupBy(endpointRoot.get("app"), endpointRoot.get("uri"))
+                .orderBy(cb.desc(hits));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Метод позволяет сохранить коллекцию записей данных о просмотрах эндпоинтов пакетной вставкой в одной
+     * транзакции, так что при ошибке не сохраняется ни одна запись
+     *
+     * @param endPointHits записи данных о просмотрах эндпоинтов
+     * @since 1.1
+     */
+    @Override
+    @Transactional
+    public void saveAllInBatch(Collection<EndPointHit> endPointHits) {
+        if (endPointHits.isEmpty()) {
+            return;
         }
-        TypedQuery<EndPointHit> typedQuery = entityManager.createQuery(query);
-        return typedQuery.getResultList();
+        jdbcTemplate.batchUpdate(INSERT_HIT, endPointHits, JDBC_BATCH_SIZE, (ps, hit) -> {
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setString(3, hit.getIp());
+            ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+        });
     }
 }
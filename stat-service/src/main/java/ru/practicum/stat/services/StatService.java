@@ -1,9 +1,11 @@
 package ru.practicum.stat.services;
 
 import ru.practicum.stat.models.dto.EndPointHitDto;
+import ru.practicum.stat.models.dto.EndPointHitsResultDto;
 import ru.practicum.stat.models.dto.ViewStatsDto;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Интерфейс для работы со статистикой просмотров эндпоинтов
@@ -23,6 +25,15 @@ public interface StatService {
      */
     EndPointHitDto addEndPointHit(EndPointHitDto dto);
 
+    /**
+     * Метод позволяет добавить пакет записей о просмотрах эндпоинтов в одной транзакции
+     *
+     * @param dtos Dto записей данных о просмотрах эндпоинтов
+     * @return подтверждение сохранения пакета записей
+     * @since 1.1
+     */
+    EndPointHitsResultDto addEndPointHits(List<EndPointHitDto> dtos);
+
     /**
      * Метод позволяет получить статистику просмотров определенных эндпоинтов, подходящую под указанные параметры
      *
@@ -0,0 +1,249 @@
+package ru.practicum.stat.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.stat.models.EndPointHit;
+import ru.practicum.stat.repositories.StatRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Буфер отложенной записи данных о просмотрах эндпоинтов. Записи накапливаются в ограниченной очереди и сохраняются
+ * фоновым потоком пакетной вставкой при достижении размера пакета или по истечении интервала сброса
+ *
+ * @since 1.1
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "stats.hit-buffer.enabled", havingValue = "true")
+public class EndPointHitBuffer {
+    /**
+     * Интерфейс репозитория статистики
+     *
+     * @since 1.1
+     */
+    private final StatRepository statRepository;
+
+    /**
+     * Ограниченная очередь записей, ожидающих сохранения
+     *
+     * @since 1.1
+     */
+    private final BlockingQueue<EndPointHit> queue;
+
+    /**
+     * Максимальное количество записей в одной пакетной вставке
+     *
+     * @since 1.1
+     */
+    private final int batchSize;
+
+    /**
+     * Максимальное время ожидания записи в очереди перед сбросом, в наносекундах
+     *
+     * @since 1.1
+     */
+    private final long flushIntervalNanos;
+
+    /**
+     * Максимальное время ожидания сброса оставшихся записей при остановке сервиса, в миллисекундах
+     *
+     * @since 1.1
+     */
+    private final long shutdownTimeoutMs;
+
+    /**
+     * Время выполнения пакетной вставки
+     *
+     * @since 1.1
+     */
+    private final Timer flushTimer;
+
+    /**
+     * Количество сохраненных записей
+     *
+     * @since 1.1
+     */
+    private final Counter flushedHits;
+
+    /**
+     * Количество записей, которые не удалось сохранить
+     *
+     * @since 1.1
+     */
+    private final Counter failedHits;
+
+    /**
+     * Фоновый поток, сохраняющий записи из очереди
+     *
+     * @since 1.1
+     */
+    private final Thread writer;
+
+    /**
+     * Принимает ли буфер новые записи
+     *
+     * @since 1.1
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Блокировка, разделяющая постановку записей в очередь и остановку буфера, чтобы после остановки в очередь не
+     * попадали записи, которые фоновый поток уже не сохранит
+     *
+     * @since 1.1
+     */
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public EndPointHitBuffer(StatRepository statRepository, MeterRegistry meterRegistry,
+                             @Value("${stats.hit-buffer.capacity:10000}") int capacity,
+                             @Value("${stats.hit-buffer.batch-size:500}") int batchSize,
+                             @Value("${stats.hit-buffer.flush-interval-ms:1000}") long flushIntervalMs,
+                             @Value("${stats.hit-buffer.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.statRepository = statRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        meterRegistry.gauge("stats.hit-buffer.queue.size", queue, BlockingQueue::size);
+        this.flushTimer = meterRegistry.timer("stats.hit-buffer.flush");
+        this.flushedHits = meterRegistry.counter("stats.hit-buffer.hits", "result", "flushed");
+        this.failedHits = meterRegistry.counter("stats.hit-buffer.hits", "result", "failed");
+        this.writer = new Thread(this::runWriter, "stats-hit-buffer-writer");
+    }
+
+    @PostConstruct
+    private void start() {
+        writer.start();
+        log.info("Запущен буфер отложенной записи просмотров эндпоинтов.");
+    }
+
+    /**
+     * Метод позволяет поставить запись данных о просмотре эндпоинта в очередь на сохранение. Если очередь заполнена
+     * или буфер остановлен, запись сохраняется сразу в вызывающем потоке
+     *
+     * @param endPointHit запись данных о просмотре эндпоинта
+     * @since 1.1
+     */
+    public void add(EndPointHit endPointHit) {
+        boolean queued;
+        runningLock.readLock().lock();
+        try {
+            queued = running && queue.offer(endPointHit);
+        } finally {
+            runningLock.readLock().unlock();
+        }
+        if (!queued) {
+            statRepository.save(endPointHit);
+        }
+    }
+
+    /**
+     * Метод позволяет остановить буфер и сохранить все оставшиеся в очереди записи
+     *
+     * @since 1.1
+     */
+    @PreDestroy
+    private void stop() throws InterruptedException {
+        runningLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            log.error("Буфер просмотров эндпоинтов не успел сохранить {} записей за {} мс.", queue.size(),
+                    shutdownTimeoutMs);
+        } else {
+            log.info("Буфер отложенной записи просмотров эндпоинтов остановлен.");
+        }
+    }
+
+    /**
+     * Основной цикл фонового потока: собирает пакет записей и сохраняет его по размеру или по времени, а после
+     * остановки буфера сохраняет все оставшиеся записи
+     *
+     * @since 1.1
+     */
+    private void runWriter() {
+        List<EndPointHit> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (running) {
+            try {
+                long wait = deadline - System.nanoTime();
+                EndPointHit endPointHit = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                if (endPointHit != null) {
+                    batch.add(endPointHit);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (batch.size() >= batchSize || System.nanoTime() - deadline >= 0) {
+                flush(batch);
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+        }
+        do {
+            queue.drainTo(batch, batchSize - batch.size());
+            flush(batch);
+        } while (!queue.isEmpty());
+    }
+
+    /**
+     * Метод позволяет сохранить пакет записей одной пакетной вставкой и очистить его. Если пакетная вставка не
+     * удалась, записи сохраняются по одной, чтобы ошибка одной записи или кратковременный сбой базы данных не
+     * приводили к потере всего пакета
+     *
+     * @param batch пакет записей
+     * @since 1.1
+     */
+    private void flush(List<EndPointHit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flushTimer.record(() -> statRepository.saveAllInBatch(batch));
+            flushedHits.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сохранить пакет из {} записей о просмотрах эндпоинтов, записи будут сохранены по "
+                    + "одной: {}", batch.size(), e.getMessage());
+            batch.forEach(this::save);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Метод позволяет сохранить одну запись данных о просмотре эндпоинта
+     *
+     * @param endPointHit запись данных о просмотре эндпоинта
+     * @since 1.1
+     */
+    private void save(EndPointHit endPointHit) {
+        try {
+            statRepository.save(endPointHit);
+            flushedHits.increment();
+        } catch (RuntimeException e) {
+            failedHits.increment();
+            log.error("Не удалось сохранить запись о просмотре эндпоинта {}: {}", endPointHit.getUri(),
+                    e.getMessage());
+        }
+    }
+}
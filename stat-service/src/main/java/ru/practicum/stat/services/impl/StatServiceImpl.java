@@ -1,11 +1,14 @@
 package ru.practicum.stat.services.impl;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.stat.models.EndPointHit;
 import ru.practicum.stat.models.ViewStats;
 import ru.practicum.stat.models.dto.EndPointHitDto;
+import ru.practicum.stat.models.dto.EndPointHitsResultDto;
 import ru.practicum.stat.models.dto.ViewStatsDto;
 import ru.practicum.stat.models.dto.mappers.EndPointHitMapper;
 import ru.practicum.stat.models.dto.mappers.ViewStatsMapper;
@@ -15,7 +18,6 @@ import ru.practicum.stat.services.StatService;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -36,9 +38,17 @@ public class StatServiceImpl implements StatService {
      */
     private final StatRepository statRepository;
 
+    /**
+     * Буфер отложенной записи данных о просмотрах эндпоинтов (null, если запись выполняется сразу)
+     *
+     * @since 1.1
+     */
+    private final EndPointHitBuffer endPointHitBuffer;
+
     @Autowired
-    public StatServiceImpl(StatRepository statRepository) {
+    public StatServiceImpl(StatRepository statRepository, ObjectProvider<EndPointHitBuffer> endPointHitBuffer) {
         this.statRepository = statRepository;
+        this.endPointHitBuffer = endPointHitBuffer.getIfAvailable();
     }
 
     /**
@@ -50,12 +60,36 @@ public class StatServiceImpl implements StatService {
      */
     @Override
     public EndPointHitDto addEndPointHit(EndPointHitDto dto) {
+        if (endPointHitBuffer != null) {
+            endPointHitBuffer.add(EndPointHitMapper.toEndPointHit(dto));
+            log.debug("Поставлен в очередь на сохранение endpoint app={}, uri={}, ip={}.", dto.getApp(),
+                    dto.getUri(), dto.getIp());
+            return dto;
+        }
         EndPointHit endPointHit = statRepository.save(EndPointHitMapper.toEndPointHit(dto));
         log.info("Добавлен endpoint app={}, uri={}, ip={}.", endPointHit.getApp(), endPointHit.getUri(),
                 endPointHit.getIp());
         return EndPointHitMapper.toDto(endPointHit);
     }
 
+    /**
+     * Метод позволяет добавить пакет записей о просмотрах эндпоинтов в одной транзакции
+     *
+     * @param dtos Dto записей данных о просмотрах эндпоинтов
+     * @return подтверждение сохранения пакета записей
+     * @since 1.1
+     */
+    @Override
+    @Transactional
+    public EndPointHitsResultDto addEndPointHits(List<EndPointHitDto> dtos) {
+        List<EndPointHit> endPointHits = dtos.stream()
+                .map(EndPointHitMapper::toEndPointHit)
+                .collect(Collectors.toList());
+        statRepository.saveAllInBatch(endPointHits);
+        log.info("Добавлен пакет из {} endpoint.", endPointHits.size());
+        return new EndPointHitsResultDto(endPointHits.size());
+    }
+
     /**
      * Метод позволяет получить статистику просмотров определенных эндпоинтов, подходящую под указанные параметры
      *
@@ -68,14 +102,8 @@ public class StatServiceImpl implements StatService {
      */
     @Override
     public Collection<ViewStatsDto> getStats(String start, String end, String[] uris, Boolean unique) {
-        List<ViewStats> viewStats = new ArrayList<>();
-        for (String uri : uris) {
-            List<EndPointHit> endPointHits = statRepository.findAllByUri(decodeParameter(start), decodeParameter(end),
-                    uri, unique);
-            if (!endPointHits.isEmpty()) {
-                viewStats.add(new ViewStats(endPointHits.get(0).getApp(), uri, endPointHits.size()));
-            }
-        }
+        List<ViewStats> viewStats = statRepository.getStats(decodeParameter(start), decodeParameter(end), uris,
+                unique);
         return viewStats.stream()
                 .map(ViewStatsMapper::toDto)
                 .collect(Collectors.toList());
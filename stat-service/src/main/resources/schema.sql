@@ -6,4 +6,6 @@ CREATE TABLE IF NOT EXISTS stats
     ip        VARCHAR(50)                             NOT NULL,
     timestamp TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
     CONSTRAINT pk_stats PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_stats_uri_timestamp ON stats (uri, timestamp);